@@ -25,13 +25,72 @@
 package blog.art.chess.andante;
 
 import blog.art.chess.andante.parser.Parser;
+import blog.art.chess.andante.problem.Problem;
 import blog.art.chess.andante.problem.Task;
-import java.util.Arrays;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Andante {
 
   public static void main(String[] args) {
     System.out.println("Andante 1.1.7 [2025-03-24] Copyright 2024-2025 Ivan Denkovski");
-    new Parser(Arrays.stream(args).findFirst().orElse(null)).readAllTasks().forEach(Task::solve);
+    String inputFile = null;
+    Parser.BoardType boardType = Parser.BoardType.BITBOARD;
+    int hashSize = 16;
+    int nThreads = 1;
+    int nTasks = 1;
+    for (int index = 0; index < args.length; index++) {
+      String option = args[index];
+      try {
+        switch (option) {
+          case "-board" ->
+              boardType = Parser.BoardType.valueOf(args[++index].toUpperCase(Locale.ROOT));
+          case "-hash" -> hashSize = Integer.parseUnsignedInt(args[++index]);
+          case "-threads" -> nThreads = Integer.parseUnsignedInt(args[++index]);
+          case "-batch" -> nTasks = Integer.parseUnsignedInt(args[++index]);
+          default -> inputFile = option;
+        }
+      } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+        System.err.println(
+            Problem.logPrefix() + " Argument failure (invalid option: \"" + option + "\").");
+        return;
+      }
+    }
+    List<Task> tasks = new Parser(inputFile, boardType, hashSize, nThreads).readAllTasks();
+    if (nTasks > 1) {
+      solveConcurrently(tasks, nTasks);
+    } else {
+      tasks.forEach(Task::solve);
+    }
+  }
+
+  private static void solveConcurrently(List<Task> tasks, int nTasks) {
+    ExecutorService executor = Executors.newFixedThreadPool(nTasks);
+    try {
+      List<CompletableFuture<Void>> solutions = new ArrayList<>();
+      List<ByteArrayOutputStream> outs = new ArrayList<>();
+      List<ByteArrayOutputStream> errs = new ArrayList<>();
+      for (Task task : tasks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        solutions.add(CompletableFuture.runAsync(
+            () -> task.solve(new PrintStream(out, true), new PrintStream(err, true)), executor));
+        outs.add(out);
+        errs.add(err);
+      }
+      for (int index = 0; index < tasks.size(); index++) {
+        solutions.get(index).join();
+        System.err.writeBytes(errs.get(index).toByteArray());
+        System.out.writeBytes(outs.get(index).toByteArray());
+      }
+    } finally {
+      executor.shutdown();
+    }
   }
 }
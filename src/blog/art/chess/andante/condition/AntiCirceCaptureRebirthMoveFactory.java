@@ -41,6 +41,11 @@ import java.util.StringJoiner;
 
 public class AntiCirceCaptureRebirthMoveFactory extends MoveFactory {
 
+  @Override
+  public boolean isOrthodox() {
+    return false;
+  }
+
   @Override
   public boolean createCapture(Board board, Square origin, Square target, List<Move> moves) {
     Piece piece = board.get(origin);
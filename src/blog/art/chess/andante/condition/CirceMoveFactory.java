@@ -44,6 +44,11 @@ import java.util.StringJoiner;
 
 public class CirceMoveFactory extends MoveFactory {
 
+  @Override
+  public boolean isOrthodox() {
+    return false;
+  }
+
   @Override
   public boolean createCapture(Board board, Square origin, Square target, List<Move> moves) {
     Piece piece = board.get(target);
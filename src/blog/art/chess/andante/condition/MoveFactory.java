@@ -43,6 +43,10 @@ import java.util.StringJoiner;
 
 public class MoveFactory {
 
+  public boolean isOrthodox() {
+    return true;
+  }
+
   public void newQuietMove(Square origin, Square target, List<Move> moves) {
     if (moves != null) {
       moves.add(new QuietMove(origin, target));
@@ -34,6 +34,11 @@ import java.util.StringJoiner;
 
 public class NoCaptureMoveFactory extends MoveFactory {
 
+  @Override
+  public boolean isOrthodox() {
+    return false;
+  }
+
   @Override
   public boolean createCapture(Board board, Square origin, Square target, List<Move> moves) {
     return !board.get(target).isRoyal();
@@ -30,22 +30,27 @@ import java.util.StringJoiner;
 
 public abstract class Castling extends QuietMove {
 
+  private static final Move NULL_MOVE = new NullMove();
+
   protected final Square origin2;
   protected final Square target2;
+  private final Move stopMove;
 
   public Castling(Square origin, Square target, Square origin2, Square target2) {
     super(origin, target);
     this.origin2 = origin2;
     this.target2 = target2;
+    this.stopMove = new QuietMove(origin, target2);
   }
 
   @Override
   protected boolean preMake(Position position) {
-    Move nullMove = new NullMove();
-    boolean result = nullMove.make(position, null, null, null);
-    nullMove.unmake(position);
-    Move stopMove = new QuietMove(origin, target2);
-    result = stopMove.make(position, null, null, null) && result;
+    boolean result = NULL_MOVE.make(position, null, null, null);
+    NULL_MOVE.unmake(position);
+    if (!result) {
+      return false;
+    }
+    result = stopMove.make(position, null, null, null);
     stopMove.unmake(position);
     return result;
   }
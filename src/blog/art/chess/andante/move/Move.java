@@ -49,10 +49,19 @@ public abstract class Move {
 
   protected abstract void preWrite(Position position, StringBuilder lanBuilder, Locale locale);
 
-  public static void postWrite(Position position, List<Move> pseudoLegalMoves,
-      StringBuilder lanBuilder) {
+  public final String toLan(Position position, Locale locale) {
+    StringBuilder lanBuilder = new StringBuilder();
+    unmake(position);
+    preWrite(position, lanBuilder, locale);
+    updatePieces(position);
+    updateState(position);
+    postWrite(position, lanBuilder);
+    return lanBuilder.toString();
+  }
+
+  private static void postWrite(Position position, StringBuilder lanBuilder) {
     int nChecks = position.isCheck();
-    boolean terminal = position.isTerminal(pseudoLegalMoves);
+    boolean terminal = position.isTerminal();
     if (terminal) {
       if (nChecks > 0) {
         if (nChecks > 1) {
@@ -69,6 +78,10 @@ public abstract class Move {
     }
   }
 
+  public boolean matches(Move move) {
+    return move != null && move.getClass() == getClass();
+  }
+
   protected abstract boolean preMake(Position position);
 
   protected abstract void updatePieces(Position position);
@@ -50,7 +50,7 @@ public class NullMove extends Move {
 
   @Override
   protected final void updateState(Position position) {
-    position.getMemory().push(position.getState().copy());
+    position.getMemory().push(position.getState());
     updateCastlings(position);
     updateEnPassant(position);
     position.toggleSideToMove();
@@ -66,7 +66,7 @@ public class NullMove extends Move {
   @Override
   protected final void revertState(Position position) {
     position.toggleSideToMove();
-    position.setState(position.getMemory().pop());
+    position.getMemory().pop(position.getState());
   }
 
   @Override
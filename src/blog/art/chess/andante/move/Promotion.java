@@ -39,6 +39,11 @@ public class Promotion extends QuietMove {
     this.section = section;
   }
 
+  @Override
+  public boolean matches(Move move) {
+    return super.matches(move) && section.equals(((Promotion) move).section);
+  }
+
   @Override
   protected void preWrite(Position position, StringBuilder lanBuilder, Locale locale) {
     lanBuilder.append(position.getBoard().get(origin).getCode(locale))
@@ -39,6 +39,20 @@ public class QuietMove extends NullMove {
     this.target = target;
   }
 
+  public Square getOrigin() {
+    return origin;
+  }
+
+  public Square getTarget() {
+    return target;
+  }
+
+  @Override
+  public boolean matches(Move move) {
+    return super.matches(move) && origin.equals(((QuietMove) move).origin) && target.equals(
+        ((QuietMove) move).target);
+  }
+
   @Override
   protected void preWrite(Position position, StringBuilder lanBuilder, Locale locale) {
     lanBuilder.append(position.getBoard().get(origin).getCode(locale))
@@ -40,6 +40,9 @@ import blog.art.chess.andante.piece.orthodox.Knight;
 import blog.art.chess.andante.piece.orthodox.Pawn;
 import blog.art.chess.andante.piece.orthodox.Queen;
 import blog.art.chess.andante.piece.orthodox.Rook;
+import blog.art.chess.andante.position.ArrayBox;
+import blog.art.chess.andante.position.ArrayTable;
+import blog.art.chess.andante.position.BitboardBoard;
 import blog.art.chess.andante.position.Board;
 import blog.art.chess.andante.position.Box;
 import blog.art.chess.andante.position.DefaultBoard;
@@ -49,6 +52,8 @@ import blog.art.chess.andante.position.DefaultState;
 import blog.art.chess.andante.position.DefaultTable;
 import blog.art.chess.andante.position.MailboxBoard;
 import blog.art.chess.andante.position.Memory;
+import blog.art.chess.andante.position.PackedMemory;
+import blog.art.chess.andante.position.PackedState;
 import blog.art.chess.andante.position.Position;
 import blog.art.chess.andante.position.State;
 import blog.art.chess.andante.position.Table;
@@ -87,11 +92,19 @@ import java.util.stream.Stream;
 
 public class Parser {
 
+  public enum BoardType {BITBOARD, MAILBOX, DEFAULT}
+
   private final String inputFile;
+  private final BoardType boardType;
+  private final int hashSize;
+  private final int nThreads;
   private Locale inputLanguage;
 
-  public Parser(String inputFile) {
+  public Parser(String inputFile, BoardType boardType, int hashSize, int nThreads) {
     this.inputFile = inputFile;
+    this.boardType = boardType;
+    this.hashSize = hashSize;
+    this.nThreads = nThreads;
   }
 
   public List<Task> readAllTasks() {
@@ -234,6 +247,7 @@ public class Parser {
                         problem.getOptions().getNoCastling().add(new Popeye.Square(file, rank));
                       }
                     }
+                    case ProofNumbers -> problem.getOptions().setProofNumbers();
                   }
                 } while (scanner.hasNext(optionPattern));
               }
@@ -497,15 +511,15 @@ public class Parser {
   }
 
   private Task convertProblem(Popeye.Problem specification) {
-    Board board = specification.getPieces().stream().map(Popeye.Piece::pieceType).allMatch(
-        pieceType -> pieceType == Popeye.PieceType.King || pieceType == Popeye.PieceType.Queen
-            || pieceType == Popeye.PieceType.Rook || pieceType == Popeye.PieceType.Bishop
-            || pieceType == Popeye.PieceType.Knight || pieceType == Popeye.PieceType.Pawn)
-        ? new MailboxBoard() : new DefaultBoard();
+    Board board = createBoard(specification.getPieces().stream().map(Popeye.Piece::pieceType)
+        .allMatch(pieceType -> pieceType == Popeye.PieceType.King
+            || pieceType == Popeye.PieceType.Queen || pieceType == Popeye.PieceType.Rook
+            || pieceType == Popeye.PieceType.Bishop || pieceType == Popeye.PieceType.Knight
+            || pieceType == Popeye.PieceType.Pawn));
     specification.getPieces().forEach(piece -> board.put(
         board.getSquare(convertFile(piece.square().file()), convertRank(piece.square().rank())),
         convertPieceTypeAndColour(piece.pieceType(), piece.colour())));
-    Box box = new DefaultBox();
+    Box box = createBox();
     Popeye.PieceType[] promotionTypes = Stream.concat(
             Stream.of(Popeye.PieceType.Queen, Popeye.PieceType.Rook, Popeye.PieceType.Bishop,
                 Popeye.PieceType.Knight),
@@ -534,13 +548,13 @@ public class Parser {
           .forEach(promotionNo -> box.push(box.getSection(convertColour(colour), index + 1),
               convertPieceTypeAndColour(promotionTypes[index], colour))));
     });
-    Table table = new DefaultTable();
+    Table table = createTable();
     Colour sideToMove = switch (specification.getStipulation().stipulationType()) {
       case Direct, Self -> specification.getOptions().isHalfDuplex();
       case Help ->
           specification.getOptions().isHalfDuplex() == specification.getOptions().isWhiteToPlay();
     } ? Colour.BLACK : Colour.WHITE;
-    State state = new DefaultState();
+    State state = createState();
     specification.getPieces().stream().collect(
             Collectors.toMap(Popeye.Piece::square, Function.identity(),
                 (oldValue, newValue) -> newValue)).values().stream().filter(piece ->
@@ -555,7 +569,7 @@ public class Parser {
                 board.getSquare(convertFile(square.file()), convertRank(square.rank()))));
     specification.getOptions().getEnPassant().forEach(square -> state.setEnPassant(
         board.getSquare(convertFile(square.file()), convertRank(square.rank()))));
-    Memory memory = new DefaultMemory();
+    Memory memory = createMemory();
     MoveFactory moveFactory = specification.getConditions().isCirce() ? new CirceMoveFactory()
         : specification.getConditions().isNoCapture() ? new NoCaptureMoveFactory()
             : specification.getConditions().getAntiCirce() != null
@@ -592,10 +606,12 @@ public class Parser {
             .isNoShortVariations();
     boolean tempoTries =
         specification.getOptions().isNullMoves() || specification.getOptions().isTry();
+    boolean proofNumbers = specification.getOptions().isProofNumbers();
     AnalysisOptions analysisOptions = switch (specification.getStipulation().stipulationType()) {
       case Direct, Self ->
-          new BattlePlayOptions(setPlay, nRefutations, variations, threats, shortVariations);
-      case Help -> new HelpPlayOptions(setPlay, tempoTries);
+          new BattlePlayOptions(setPlay, nRefutations, variations, threats, shortVariations,
+              proofNumbers, hashSize, nThreads);
+      case Help -> new HelpPlayOptions(setPlay, tempoTries, hashSize, nThreads);
     };
     Locale outputLanguage = inputLanguage;
     boolean internalModel = !specification.getOptions().isNoBoard();
@@ -604,6 +620,30 @@ public class Parser {
     return new Task(problem, analysisOptions, displayOptions);
   }
 
+  private Board createBoard(boolean orthodox) {
+    return switch (boardType) {
+      case BITBOARD -> new BitboardBoard();
+      case MAILBOX -> orthodox ? new MailboxBoard() : new DefaultBoard();
+      case DEFAULT -> new DefaultBoard();
+    };
+  }
+
+  private Box createBox() {
+    return boardType == BoardType.DEFAULT ? new DefaultBox() : new ArrayBox();
+  }
+
+  private Table createTable() {
+    return boardType == BoardType.DEFAULT ? new DefaultTable() : new ArrayTable();
+  }
+
+  private State createState() {
+    return boardType == BoardType.DEFAULT ? new DefaultState() : new PackedState();
+  }
+
+  private Memory createMemory() {
+    return boardType == BoardType.DEFAULT ? new DefaultMemory() : new PackedMemory();
+  }
+
   private Piece convertPieceTypeAndColour(Popeye.PieceType pieceType, Popeye.Colour colour) {
     return switch (pieceType) {
       case King -> new King(convertColour(colour));
@@ -692,11 +732,11 @@ public class Parser {
   }
 
   private Task convertPosition(Model.Position specification) {
-    Board board = new MailboxBoard();
+    Board board = createBoard(true);
     IntStream.range(0, 64).filter(index -> specification.getBoard().get(index) != null).forEach(
         index -> board.put(board.getSquare(index % 8 + 1, 8 - index / 8),
             convertPiece(specification.getBoard().get(index))));
-    Box box = new DefaultBox();
+    Box box = createBox();
     Arrays.stream(Model.Colour.values()).forEach(colour -> {
       int maxMove = switch (specification.getOperation().opcode()) {
         case ACD -> specification.getSideToMove() == colour ?
@@ -723,9 +763,9 @@ public class Parser {
           .forEach(promotionNo -> box.push(box.getSection(convertColour(colour), index + 1),
               convertPiece(promotions[index]))));
     });
-    Table table = new DefaultTable();
+    Table table = createTable();
     Colour sideToMove = convertColour(specification.getSideToMove());
-    State state = new DefaultState();
+    State state = createState();
     specification.getCastlings().forEach(castling -> IntStream.of(switch (castling) {
       case WhiteShort, WhiteLong -> 60;
       case BlackShort, BlackLong -> 4;
@@ -739,7 +779,7 @@ public class Parser {
       state.setEnPassant(board.getSquare(specification.getEnPassant().index() % 8 + 1,
           8 - specification.getEnPassant().index() / 8));
     }
-    Memory memory = new DefaultMemory();
+    Memory memory = createMemory();
     MoveFactory moveFactory = new MoveFactory() {
       @Override
       public String toString() {
@@ -760,9 +800,19 @@ public class Parser {
       case DM -> new MateSearch(position, nMoves);
     };
     AnalysisOptions analysisOptions = new AnalysisOptions() {
+      @Override
+      public int hashSize() {
+        return hashSize;
+      }
+
+      @Override
+      public int nThreads() {
+        return nThreads;
+      }
+
       @Override
       public String toString() {
-        return "default";
+        return "hashSize=" + hashSize + ", nThreads=" + nThreads;
       }
     };
     DisplayOptions displayOptions = new DisplayOptions() {
@@ -69,7 +69,7 @@ class Popeye {
 
   }
 
-  enum Option {Try, Defence, SetPlay, NullMoves, WhiteToPlay, Variation, MoveNumbers, NoThreat, EnPassant, NoBoard, NoShortVariations, HalfDuplex, NoCastling}
+  enum Option {Try, Defence, SetPlay, NullMoves, WhiteToPlay, Variation, MoveNumbers, NoThreat, EnPassant, NoBoard, NoShortVariations, HalfDuplex, NoCastling, ProofNumbers}
 
   static class Options {
 
@@ -86,6 +86,7 @@ class Popeye {
     private boolean noShortVariations;
     private boolean halfDuplex;
     private final List<Square> noCastling = new ArrayList<>();
+    private boolean proofNumbers;
 
     boolean isTry() {
       return tri;
@@ -182,6 +183,14 @@ class Popeye {
     List<Square> getNoCastling() {
       return noCastling;
     }
+
+    boolean isProofNumbers() {
+      return proofNumbers;
+    }
+
+    void setProofNumbers() {
+      this.proofNumbers = true;
+    }
   }
 
   enum Condition {Circe, NoCapture, AntiCirce}
@@ -56,6 +56,7 @@ public class PopeyeKeywords extends ListResourceBundle {
         {Popeye.Option.NoShortVariations.name(), Popeye.Option.NoShortVariations.name()},
         {Popeye.Option.HalfDuplex.name(), Popeye.Option.HalfDuplex.name()},
         {Popeye.Option.NoCastling.name(), Popeye.Option.NoCastling.name()},
+        {Popeye.Option.ProofNumbers.name(), Popeye.Option.ProofNumbers.name()},
         {Popeye.AntiCirce.Calvet.name(), Popeye.AntiCirce.Calvet.name()},
         {Popeye.AntiCirce.Cheylan.name(), Popeye.AntiCirce.Cheylan.name()}};
   }
@@ -50,6 +50,7 @@ public class PopeyeKeywords_de extends ListResourceBundle {
         {Popeye.Option.NoShortVariations.name(), "OhneKurzVarianten"},
         {Popeye.Option.HalfDuplex.name(), "HalbDuplex"},
         {Popeye.Option.NoCastling.name(), "KeineRochade"},
+        {Popeye.Option.ProofNumbers.name(), "Beweiszahlen"},
         {Popeye.AntiCirce.Calvet.name(), "Calvet"}, {Popeye.AntiCirce.Cheylan.name(), "Cheylan"}};
   }
 }
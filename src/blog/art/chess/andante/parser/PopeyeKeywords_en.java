@@ -50,7 +50,9 @@ public class PopeyeKeywords_en extends ListResourceBundle {
         {Popeye.Option.NoBoard.name(), "NoBoard"},
         {Popeye.Option.NoShortVariations.name(), "NoShortVariations"},
         {Popeye.Option.HalfDuplex.name(), "HalfDuplex"},
-        {Popeye.Option.NoCastling.name(), "NoCastling"}, {Popeye.AntiCirce.Calvet.name(), "Calvet"},
+        {Popeye.Option.NoCastling.name(), "NoCastling"},
+        {Popeye.Option.ProofNumbers.name(), "ProofNumbers"},
+        {Popeye.AntiCirce.Calvet.name(), "Calvet"},
         {Popeye.AntiCirce.Cheylan.name(), "Cheylan"}};
   }
 }
@@ -49,7 +49,9 @@ public class PopeyeKeywords_fr extends ListResourceBundle {
         {Popeye.Option.NoBoard.name(), "SansEchiquier"},
         {Popeye.Option.NoShortVariations.name(), "SansVariantesCourtes"},
         {Popeye.Option.HalfDuplex.name(), "DemiDuplex"},
-        {Popeye.Option.NoCastling.name(), "SansRoquer"}, {Popeye.AntiCirce.Calvet.name(), "Calvet"},
+        {Popeye.Option.NoCastling.name(), "SansRoquer"},
+        {Popeye.Option.ProofNumbers.name(), "NombresDePreuve"},
+        {Popeye.AntiCirce.Calvet.name(), "Calvet"},
         {Popeye.AntiCirce.Cheylan.name(), "Cheylan"}};
   }
 }
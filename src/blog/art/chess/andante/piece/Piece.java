@@ -32,11 +32,16 @@ import blog.art.chess.andante.position.Square;
 import blog.art.chess.andante.position.State;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class Piece {
 
+  private static final Map<Locale, Map<Class<? extends Piece>, String>> pieceCodes =
+      new ConcurrentHashMap<>();
+
   protected final Colour colour;
 
   public Piece(Colour colour) {
@@ -59,8 +64,10 @@ public abstract class Piece {
       MoveFactory moveFactory, List<Move> moves);
 
   public String getCode(Locale locale) {
-    return ResourceBundle.getBundle("blog.art.chess.andante.piece.PieceCodes", locale)
-        .getString(getClass().getSimpleName());
+    return pieceCodes.computeIfAbsent(locale, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(getClass(),
+            type -> ResourceBundle.getBundle("blog.art.chess.andante.piece.PieceCodes", locale)
+                .getString(type.getSimpleName()));
   }
 
   @Override
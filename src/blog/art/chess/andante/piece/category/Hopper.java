@@ -42,30 +42,20 @@ public interface Hopper {
   default boolean generateMoves(Board board, Square origin, MoveFactory moveFactory,
       List<Move> moves) {
     for (Direction direction : getHops(board)) {
-      int distance = 1;
-      while (true) {
-        Square target = board.findTarget(origin, direction, distance);
+      Square hurdle = board.findObstacle(origin, direction);
+      if (hurdle != null) {
+        Square target = board.findTarget(hurdle, direction, 1);
         if (target != null) {
-          if (board.get(target) != null) {
-            target = board.findTarget(origin, direction, distance + 1);
-            if (target != null) {
-              Piece piece = board.get(target);
-              if (piece != null) {
-                if (piece.getColour() != getColour()) {
-                  if (!moveFactory.createCapture(board, origin, target, moves)) {
-                    return false;
-                  }
-                }
-              } else {
-                moveFactory.newQuietMove(origin, target, moves);
+          Piece piece = board.get(target);
+          if (piece != null) {
+            if (piece.getColour() != getColour()) {
+              if (!moveFactory.createCapture(board, origin, target, moves)) {
+                return false;
               }
             }
-            break;
           } else {
-            distance++;
+            moveFactory.newQuietMove(origin, target, moves);
           }
-        } else {
-          break;
         }
       }
     }
@@ -42,24 +42,25 @@ public interface Rider {
   default boolean generateMoves(Board board, Square origin, MoveFactory moveFactory,
       List<Move> moves) {
     for (Direction direction : getRides(board)) {
-      int distance = 1;
-      while (true) {
-        Square target = board.findTarget(origin, direction, distance);
-        if (target != null) {
-          Piece piece = board.get(target);
-          if (piece != null) {
-            if (piece.getColour() != getColour()) {
-              if (!moveFactory.createCapture(board, origin, target, moves)) {
-                return false;
-              }
-            }
-            break;
-          } else {
+      Square obstacle = board.findObstacle(origin, direction);
+      if (moves != null) {
+        int distance = 1;
+        while (true) {
+          Square target = board.findTarget(origin, direction, distance);
+          if (target != null && !target.equals(obstacle)) {
             moveFactory.newQuietMove(origin, target, moves);
             distance++;
+          } else {
+            break;
+          }
+        }
+      }
+      if (obstacle != null) {
+        Piece piece = board.get(obstacle);
+        if (piece.getColour() != getColour()) {
+          if (!moveFactory.createCapture(board, origin, obstacle, moves)) {
+            return false;
           }
-        } else {
-          break;
         }
       }
     }
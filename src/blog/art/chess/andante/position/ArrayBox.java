@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.position;
+
+import blog.art.chess.andante.piece.Colour;
+import blog.art.chess.andante.piece.Piece;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+public class ArrayBox implements Box {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Section[][] sections = new Section[Colour.values().length][0];
+  private final Piece[][][] pieces = new Piece[Colour.values().length][0][];
+  private final int[][] sizes = new int[Colour.values().length][0];
+  private final List<List<Section>> filledSections = new ArrayList<>();
+
+  public ArrayBox() {
+    for (int index = 0; index < Colour.values().length; index++) {
+      filledSections.add(new ArrayList<>());
+    }
+  }
+
+  private ArrayBox(ArrayBox box) {
+    for (int index = 0; index < Colour.values().length; index++) {
+      this.sections[index] = box.sections[index].clone();
+      this.pieces[index] = new Piece[box.pieces[index].length][];
+      for (int order = 0; order < box.pieces[index].length; order++) {
+        if (box.pieces[index][order] != null) {
+          this.pieces[index][order] = box.pieces[index][order].clone();
+        }
+      }
+      this.sizes[index] = box.sizes[index].clone();
+      this.filledSections.add(new ArrayList<>(box.filledSections.get(index)));
+    }
+  }
+
+  @Override
+  public Box copy() {
+    return new ArrayBox(this);
+  }
+
+  @Override
+  public Piece peek(Section section) {
+    int colour = section.colour().ordinal();
+    int order = section.order() - 1;
+    return pieces[colour][order][sizes[colour][order] - 1];
+  }
+
+  @Override
+  public Piece pop(Section section) {
+    int colour = section.colour().ordinal();
+    int order = section.order() - 1;
+    int size = --sizes[colour][order];
+    Piece piece = pieces[colour][order][size];
+    pieces[colour][order][size] = null;
+    return piece;
+  }
+
+  @Override
+  public void push(Section section, Piece piece) {
+    int colour = section.colour().ordinal();
+    int order = section.order() - 1;
+    ensureCapacity(colour, order);
+    Piece[] stack = pieces[colour][order];
+    if (stack == null) {
+      stack = new Piece[INITIAL_CAPACITY];
+      pieces[colour][order] = stack;
+      List<Section> colourSections = filledSections.get(colour);
+      int index = 0;
+      while (index < colourSections.size() && colourSections.get(index).order() < section.order()) {
+        index++;
+      }
+      colourSections.add(index, getSection(section.colour(), section.order()));
+    } else if (sizes[colour][order] == stack.length) {
+      stack = Arrays.copyOf(stack, 2 * stack.length);
+      pieces[colour][order] = stack;
+    }
+    stack[sizes[colour][order]++] = piece;
+  }
+
+  @Override
+  public Section getSection(Colour colour, int order) {
+    ensureCapacity(colour.ordinal(), order - 1);
+    Section section = sections[colour.ordinal()][order - 1];
+    if (section == null) {
+      section = new DefaultSection(colour, order);
+      sections[colour.ordinal()][order - 1] = section;
+    }
+    return section;
+  }
+
+  @Override
+  public List<Section> findSections(Colour colour) {
+    return Collections.unmodifiableList(filledSections.get(colour.ordinal()));
+  }
+
+  private void ensureCapacity(int colour, int order) {
+    if (order >= sections[colour].length) {
+      int length = Math.max(order + 1, 2 * sections[colour].length);
+      sections[colour] = Arrays.copyOf(sections[colour], length);
+      pieces[colour] = Arrays.copyOf(pieces[colour], length);
+      sizes[colour] = Arrays.copyOf(sizes[colour], length);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", ArrayBox.class.getSimpleName() + "[", "]").add(
+        "pieces=" + Arrays.deepToString(pieces)).toString();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.position;
+
+import blog.art.chess.andante.piece.Piece;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+public class ArrayTable implements Table {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private Piece[] pieces = new Piece[INITIAL_CAPACITY];
+  private int size;
+
+  public ArrayTable() {
+  }
+
+  private ArrayTable(ArrayTable table) {
+    this.pieces = table.pieces.clone();
+    this.size = table.size;
+  }
+
+  @Override
+  public Table copy() {
+    return new ArrayTable(this);
+  }
+
+  @Override
+  public Piece pop() {
+    Piece piece = pieces[--size];
+    pieces[size] = null;
+    return piece;
+  }
+
+  @Override
+  public void push(Piece piece) {
+    if (size == pieces.length) {
+      pieces = Arrays.copyOf(pieces, 2 * size);
+    }
+    pieces[size++] = piece;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", ArrayTable.class.getSimpleName() + "[", "]").add(
+        "pieces=" + Arrays.toString(Arrays.copyOf(pieces, size))).toString();
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.position;
+
+import blog.art.chess.andante.piece.Piece;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.IntStream;
+
+public class BitboardBoard extends StandardBoard {
+
+  private static final int MAX_OFFSET = 2;
+
+  private final Piece[] pieces = new Piece[64];
+  private long occupancy;
+
+  private static final Square[] squares = IntStream.range(0, 64).mapToObj(BitboardSquare::new)
+      .toArray(Square[]::new);
+
+  private static final Direction[] directions = IntStream.range(0,
+          (2 * MAX_OFFSET + 1) * (2 * MAX_OFFSET + 1)).mapToObj(
+          index -> new BitboardDirection(index / (2 * MAX_OFFSET + 1) - MAX_OFFSET,
+              index % (2 * MAX_OFFSET + 1) - MAX_OFFSET))
+      .toArray(Direction[]::new);
+
+  private static final Square[][] steps = new Square[directions.length][squares.length];
+
+  private static final long[][] rays = new long[directions.length][squares.length];
+
+  static {
+    for (Direction direction : directions) {
+      if (direction.fileOffset() == 0 && direction.rankOffset() == 0) {
+        continue;
+      }
+      for (Square origin : squares) {
+        int file = origin.file() + direction.fileOffset();
+        int rank = origin.rank() + direction.rankOffset();
+        if (file >= File.FIRST && file <= File.LAST && rank >= Rank.FIRST && rank <= Rank.LAST) {
+          steps[indexOf(direction)][origin.number()] = squares[numberOf(file, rank)];
+        }
+        while (file >= File.FIRST && file <= File.LAST && rank >= Rank.FIRST
+            && rank <= Rank.LAST) {
+          rays[indexOf(direction)][origin.number()] |= 1L << numberOf(file, rank);
+          file += direction.fileOffset();
+          rank += direction.rankOffset();
+        }
+      }
+    }
+  }
+
+  private static int numberOf(int file, int rank) {
+    return 8 * (file - File.FIRST) + rank - Rank.FIRST;
+  }
+
+  private static int indexOf(int fileOffset, int rankOffset) {
+    return (fileOffset + MAX_OFFSET) * (2 * MAX_OFFSET + 1) + rankOffset + MAX_OFFSET;
+  }
+
+  private static int indexOf(Direction direction) {
+    return indexOf(direction.fileOffset(), direction.rankOffset());
+  }
+
+  public BitboardBoard() {
+  }
+
+  private BitboardBoard(BitboardBoard board) {
+    super(board);
+    System.arraycopy(board.pieces, 0, this.pieces, 0, this.pieces.length);
+    this.occupancy = board.occupancy;
+  }
+
+  @Override
+  public Board copy() {
+    return new BitboardBoard(this);
+  }
+
+  @Override
+  public Piece get(Square square) {
+    return pieces[square.number()];
+  }
+
+  @Override
+  protected Piece set(Square square, Piece piece) {
+    Piece previous = pieces[square.number()];
+    if (previous != null) {
+      occupancy &= ~(1L << square.number());
+    }
+    pieces[square.number()] = piece;
+    if (piece != null) {
+      occupancy |= 1L << square.number();
+    }
+    return previous;
+  }
+
+  @Override
+  public Square getSquare(int file, int rank) {
+    if (file < File.FIRST || file > File.LAST || rank < Rank.FIRST || rank > Rank.LAST) {
+      throw new IndexOutOfBoundsException();
+    }
+    return squares[numberOf(file, rank)];
+  }
+
+  @Override
+  public Square findTarget(Square origin, Direction direction, int distance) {
+    if (distance == 1) {
+      return steps[indexOf(direction)][origin.number()];
+    }
+    int file = origin.file() + direction.fileOffset() * distance;
+    int rank = origin.rank() + direction.rankOffset() * distance;
+    if (file < File.FIRST || file > File.LAST || rank < Rank.FIRST || rank > Rank.LAST) {
+      return null;
+    }
+    return squares[numberOf(file, rank)];
+  }
+
+  @Override
+  public Square findObstacle(Square origin, Direction direction) {
+    long obstacles = rays[indexOf(direction)][origin.number()] & occupancy;
+    if (obstacles == 0) {
+      return null;
+    }
+    return squares[direction.offset() > 0 ? Long.numberOfTrailingZeros(obstacles)
+        : Long.SIZE - 1 - Long.numberOfLeadingZeros(obstacles)];
+  }
+
+  @Override
+  public Direction getDirection(int fileOffset, int rankOffset) {
+    if (fileOffset < -MAX_OFFSET || fileOffset > MAX_OFFSET || rankOffset < -MAX_OFFSET
+        || rankOffset > MAX_OFFSET) {
+      throw new IndexOutOfBoundsException();
+    }
+    return directions[indexOf(fileOffset, rankOffset)];
+  }
+
+  private static final Map<Set<Direction>, List<Direction>> bitboardDirections =
+      computeAllDirections(new BitboardBoard());
+
+  @Override
+  protected Map<Set<Direction>, List<Direction>> getAllDirections() {
+    return bitboardDirections;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", BitboardBoard.class.getSimpleName() + "[", "]").add(
+        "pieces=" + Arrays.toString(pieces)).toString();
+  }
+}
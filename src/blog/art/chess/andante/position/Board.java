@@ -30,18 +30,26 @@ import java.util.List;
 
 public interface Board {
 
+  Board copy();
+
   Piece get(Square square);
 
   void put(Square square, Piece piece);
 
   Piece remove(Square square);
 
+  long getHash();
+
   Square getSquare(int file, int rank);
 
-  List<Square> findOrigins();
+  List<Square> findOrigins(Colour colour);
+
+  List<Square> findRoyals(Colour colour);
 
   Square findTarget(Square origin, Direction direction, int distance);
 
+  Square findObstacle(Square origin, Direction direction);
+
   Direction getDirection(int fileOffset, int rankOffset);
 
   List<Direction> getDirections(int baseFileOffset, int baseRankOffset);
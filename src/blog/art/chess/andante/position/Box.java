@@ -30,6 +30,8 @@ import java.util.List;
 
 public interface Box {
 
+  Box copy();
+
   Piece peek(Section section);
 
   Piece pop(Section section);
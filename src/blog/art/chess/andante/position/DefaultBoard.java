@@ -25,31 +25,56 @@
 package blog.art.chess.andante.position;
 
 import blog.art.chess.andante.piece.Piece;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
-import java.util.TreeMap;
+import java.util.stream.IntStream;
 
 public class DefaultBoard extends StandardBoard {
 
-  private final Map<Square, Piece> pieces = new TreeMap<>();
+  private static final int MAX_OFFSET = 2;
+
+  private final Piece[] pieces = new Piece[64];
+
+  private static final Square[] squares = IntStream.range(0, 64).mapToObj(
+      index -> new DefaultSquare(index / 8 + File.FIRST, index % 8 + Rank.FIRST)).toArray(
+      Square[]::new);
+
+  private static final Direction[] directions = IntStream.range(0,
+          (2 * MAX_OFFSET + 1) * (2 * MAX_OFFSET + 1)).mapToObj(
+          index -> new DefaultDirection(index / (2 * MAX_OFFSET + 1) - MAX_OFFSET,
+              index % (2 * MAX_OFFSET + 1) - MAX_OFFSET))
+      .toArray(Direction[]::new);
+
+  private static int numberOf(int file, int rank) {
+    return 8 * (file - File.FIRST) + rank - Rank.FIRST;
+  }
+
+  public DefaultBoard() {
+  }
+
+  private DefaultBoard(DefaultBoard board) {
+    super(board);
+    System.arraycopy(board.pieces, 0, this.pieces, 0, this.pieces.length);
+  }
 
   @Override
-  public Piece get(Square square) {
-    return pieces.get(square);
+  public Board copy() {
+    return new DefaultBoard(this);
   }
 
   @Override
-  public void put(Square square, Piece piece) {
-    pieces.put(square, piece);
+  public Piece get(Square square) {
+    return pieces[indexOf(square)];
   }
 
   @Override
-  public Piece remove(Square square) {
-    return pieces.remove(square);
+  protected Piece set(Square square, Piece piece) {
+    Piece previous = pieces[indexOf(square)];
+    pieces[indexOf(square)] = piece;
+    return previous;
   }
 
   @Override
@@ -57,31 +82,30 @@ public class DefaultBoard extends StandardBoard {
     if (file < File.FIRST || file > File.LAST || rank < Rank.FIRST || rank > Rank.LAST) {
       throw new IndexOutOfBoundsException();
     }
-    return new DefaultSquare(file, rank);
-  }
-
-  @Override
-  public List<Square> findOrigins() {
-    return new ArrayList<>(pieces.keySet());
+    return squares[numberOf(file, rank)];
   }
 
   @Override
   public Square findTarget(Square origin, Direction direction, int distance) {
-    Square target = new DefaultSquare(origin.file() + direction.fileOffset() * distance,
-        origin.rank() + direction.rankOffset() * distance);
-    if (target.file() < File.FIRST || target.file() > File.LAST || target.rank() < Rank.FIRST
-        || target.rank() > Rank.LAST) {
+    int file = origin.file() + direction.fileOffset() * distance;
+    int rank = origin.rank() + direction.rankOffset() * distance;
+    if (file < File.FIRST || file > File.LAST || rank < Rank.FIRST || rank > Rank.LAST) {
       return null;
     }
-    return target;
+    return squares[numberOf(file, rank)];
   }
 
   @Override
   public Direction getDirection(int fileOffset, int rankOffset) {
-    return new DefaultDirection(fileOffset, rankOffset);
+    if (fileOffset < -MAX_OFFSET || fileOffset > MAX_OFFSET || rankOffset < -MAX_OFFSET
+        || rankOffset > MAX_OFFSET) {
+      return new DefaultDirection(fileOffset, rankOffset);
+    }
+    return directions[(fileOffset + MAX_OFFSET) * (2 * MAX_OFFSET + 1) + rankOffset + MAX_OFFSET];
   }
 
-  private static final Map<Set<Direction>, List<Direction>> defaultDirections = new HashMap<>();
+  private static final Map<Set<Direction>, List<Direction>> defaultDirections =
+      computeAllDirections(new DefaultBoard());
 
   @Override
   protected Map<Set<Direction>, List<Direction>> getAllDirections() {
@@ -91,6 +115,6 @@ public class DefaultBoard extends StandardBoard {
   @Override
   public String toString() {
     return new StringJoiner(", ", DefaultBoard.class.getSimpleName() + "[", "]").add(
-        "pieces=" + pieces).toString();
+        "pieces=" + Arrays.toString(pieces)).toString();
   }
 }
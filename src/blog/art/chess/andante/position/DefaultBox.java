@@ -37,6 +37,22 @@ public class DefaultBox implements Box {
 
   private final Map<Section, Stack<Piece>> pieces = new TreeMap<>();
 
+  public DefaultBox() {
+  }
+
+  private DefaultBox(DefaultBox box) {
+    for (Map.Entry<Section, Stack<Piece>> entry : box.pieces.entrySet()) {
+      Stack<Piece> stack = new Stack<>();
+      stack.addAll(entry.getValue());
+      this.pieces.put(entry.getKey(), stack);
+    }
+  }
+
+  @Override
+  public Box copy() {
+    return new DefaultBox(this);
+  }
+
   @Override
   public Piece peek(Section section) {
     return pieces.get(section).peek();
@@ -31,14 +31,28 @@ public class DefaultMemory implements Memory {
 
   private final Stack<State> states = new Stack<>();
 
+  public DefaultMemory() {
+  }
+
+  private DefaultMemory(DefaultMemory memory) {
+    for (State state : memory.states) {
+      this.states.push(state.copy());
+    }
+  }
+
+  @Override
+  public Memory copy() {
+    return new DefaultMemory(this);
+  }
+
   @Override
-  public State pop() {
-    return states.pop();
+  public void pop(State state) {
+    state.restore(states.pop());
   }
 
   @Override
   public void push(State state) {
-    states.push(state);
+    states.push(state.copy());
   }
 
   @Override
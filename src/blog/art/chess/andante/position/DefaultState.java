@@ -32,6 +32,7 @@ public class DefaultState implements State {
 
   private final Set<Square> castlings = new TreeSet<>();
   private Square enPassant;
+  private long hash;
 
   public DefaultState() {
   }
@@ -39,6 +40,7 @@ public class DefaultState implements State {
   private DefaultState(DefaultState state) {
     this.castlings.addAll(state.castlings);
     this.enPassant = state.enPassant;
+    this.hash = state.hash;
   }
 
   @Override
@@ -46,6 +48,15 @@ public class DefaultState implements State {
     return new DefaultState(this);
   }
 
+  @Override
+  public void restore(State state) {
+    DefaultState defaultState = (DefaultState) state;
+    this.castlings.clear();
+    this.castlings.addAll(defaultState.castlings);
+    this.enPassant = defaultState.enPassant;
+    this.hash = defaultState.hash;
+  }
+
   @Override
   public boolean isCastling(Square square) {
     return castlings.contains(square);
@@ -53,12 +64,16 @@ public class DefaultState implements State {
 
   @Override
   public void addCastling(Square square) {
-    castlings.add(square);
+    if (castlings.add(square)) {
+      hash ^= Zobrist.castlingKey(square);
+    }
   }
 
   @Override
   public void removeCastling(Square square) {
-    castlings.remove(square);
+    if (castlings.remove(square)) {
+      hash ^= Zobrist.castlingKey(square);
+    }
   }
 
   @Override
@@ -68,12 +83,22 @@ public class DefaultState implements State {
 
   @Override
   public void setEnPassant(Square enPassant) {
+    resetEnPassant();
     this.enPassant = enPassant;
+    hash ^= Zobrist.enPassantKey(enPassant);
   }
 
   @Override
   public void resetEnPassant() {
-    this.enPassant = null;
+    if (enPassant != null) {
+      hash ^= Zobrist.enPassantKey(enPassant);
+      this.enPassant = null;
+    }
+  }
+
+  @Override
+  public long getHash() {
+    return hash;
   }
 
   @Override
@@ -32,6 +32,18 @@ public class DefaultTable implements Table {
 
   private final Stack<Piece> pieces = new Stack<>();
 
+  public DefaultTable() {
+  }
+
+  private DefaultTable(DefaultTable table) {
+    this.pieces.addAll(table.pieces);
+  }
+
+  @Override
+  public Table copy() {
+    return new DefaultTable(this);
+  }
+
   @Override
   public Piece pop() {
     return pieces.pop();
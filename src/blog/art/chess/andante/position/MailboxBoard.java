@@ -27,7 +27,6 @@ package blog.art.chess.andante.position;
 import blog.art.chess.andante.piece.Piece;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +36,8 @@ import java.util.stream.IntStream;
 
 public class MailboxBoard extends StandardBoard {
 
+  private static final int MAX_OFFSET = 2;
+
   private final List<Piece> pieces = new ArrayList<>(Collections.nCopies(120, null));
 
   private static final List<Square> squares = IntStream.range(0, 120).mapToObj(number -> {
@@ -48,25 +49,33 @@ public class MailboxBoard extends StandardBoard {
     return square;
   }).collect(Collectors.toCollection(ArrayList::new));
 
-  private static final int[] numbers = IntStream.range(0, 120).filter(number -> {
-    Square square = new MailboxSquare(number);
-    return !(square.file() < File.FIRST || square.file() > File.LAST || square.rank() < Rank.FIRST
-        || square.rank() > Rank.LAST);
-  }).toArray();
+  private static final Direction[] directions = IntStream.range(0,
+          (2 * MAX_OFFSET + 1) * (2 * MAX_OFFSET + 1)).mapToObj(
+          index -> new MailboxDirection(index / (2 * MAX_OFFSET + 1) - MAX_OFFSET,
+              index % (2 * MAX_OFFSET + 1) - MAX_OFFSET))
+      .toArray(Direction[]::new);
+
+  public MailboxBoard() {
+  }
+
+  private MailboxBoard(MailboxBoard board) {
+    super(board);
+    Collections.copy(this.pieces, board.pieces);
+  }
 
   @Override
-  public Piece get(Square square) {
-    return pieces.get(square.number());
+  public Board copy() {
+    return new MailboxBoard(this);
   }
 
   @Override
-  public void put(Square square, Piece piece) {
-    pieces.set(square.number(), piece);
+  public Piece get(Square square) {
+    return pieces.get(square.number());
   }
 
   @Override
-  public Piece remove(Square square) {
-    return pieces.set(square.number(), null);
+  protected Piece set(Square square, Piece piece) {
+    return pieces.set(square.number(), piece);
   }
 
   @Override
@@ -74,18 +83,7 @@ public class MailboxBoard extends StandardBoard {
     if (file < File.FIRST || file > File.LAST || rank < Rank.FIRST || rank > Rank.LAST) {
       throw new IndexOutOfBoundsException();
     }
-    return new MailboxSquare(file, rank);
-  }
-
-  @Override
-  public List<Square> findOrigins() {
-    List<Square> origins = new ArrayList<>();
-    for (int number : numbers) {
-      if (pieces.get(number) != null) {
-        origins.add(squares.get(number));
-      }
-    }
-    return origins;
+    return squares.get(10 * (file + 1) + rank);
   }
 
   @Override
@@ -95,10 +93,15 @@ public class MailboxBoard extends StandardBoard {
 
   @Override
   public Direction getDirection(int fileOffset, int rankOffset) {
-    return new MailboxDirection(fileOffset, rankOffset);
+    if (fileOffset < -MAX_OFFSET || fileOffset > MAX_OFFSET || rankOffset < -MAX_OFFSET
+        || rankOffset > MAX_OFFSET) {
+      return new MailboxDirection(fileOffset, rankOffset);
+    }
+    return directions[(fileOffset + MAX_OFFSET) * (2 * MAX_OFFSET + 1) + rankOffset + MAX_OFFSET];
   }
 
-  private static final Map<Set<Direction>, List<Direction>> mailboxDirections = new HashMap<>();
+  private static final Map<Set<Direction>, List<Direction>> mailboxDirections =
+      computeAllDirections(new MailboxBoard());
 
   @Override
   protected Map<Set<Direction>, List<Direction>> getAllDirections() {
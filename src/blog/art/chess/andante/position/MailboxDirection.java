@@ -34,12 +34,12 @@ public record MailboxDirection(int offset) implements Direction {
 
   @Override
   public int fileOffset() {
-    return offset / 10;
+    return Math.floorDiv(offset + 5, 10);
   }
 
   @Override
   public int rankOffset() {
-    return offset % 10;
+    return offset - 10 * fileOffset();
   }
 
   @Override
@@ -26,7 +26,9 @@ package blog.art.chess.andante.position;
 
 public interface Memory {
 
-  State pop();
+  Memory copy();
+
+  void pop(State state);
 
   void push(State state);
 }
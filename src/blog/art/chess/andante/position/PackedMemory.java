@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.position;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+public class PackedMemory implements Memory {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private long[] castlings = new long[INITIAL_CAPACITY];
+  private int[] enPassants = new int[INITIAL_CAPACITY];
+  private long[] hashes = new long[INITIAL_CAPACITY];
+  private int size;
+
+  public PackedMemory() {
+  }
+
+  private PackedMemory(PackedMemory memory) {
+    this.castlings = memory.castlings.clone();
+    this.enPassants = memory.enPassants.clone();
+    this.hashes = memory.hashes.clone();
+    this.size = memory.size;
+  }
+
+  @Override
+  public Memory copy() {
+    return new PackedMemory(this);
+  }
+
+  @Override
+  public void pop(State state) {
+    size--;
+    ((PackedState) state).restore(castlings[size], enPassants[size], hashes[size]);
+  }
+
+  @Override
+  public void push(State state) {
+    if (size == hashes.length) {
+      castlings = Arrays.copyOf(castlings, 2 * size);
+      enPassants = Arrays.copyOf(enPassants, 2 * size);
+      hashes = Arrays.copyOf(hashes, 2 * size);
+    }
+    PackedState packedState = (PackedState) state;
+    castlings[size] = packedState.getCastlings();
+    enPassants[size] = packedState.getEnPassant();
+    hashes[size] = packedState.getHash();
+    size++;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", PackedMemory.class.getSimpleName() + "[", "]").add(
+        "size=" + size).toString();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.position;
+
+import java.util.StringJoiner;
+
+public class PackedState implements State {
+
+  private static final int NO_EN_PASSANT = -1;
+
+  private long castlings;
+  private int enPassant = NO_EN_PASSANT;
+  private long hash;
+
+  public PackedState() {
+  }
+
+  private PackedState(PackedState state) {
+    restore(state);
+  }
+
+  @Override
+  public State copy() {
+    return new PackedState(this);
+  }
+
+  @Override
+  public void restore(State state) {
+    PackedState packedState = (PackedState) state;
+    restore(packedState.castlings, packedState.enPassant, packedState.hash);
+  }
+
+  void restore(long castlings, int enPassant, long hash) {
+    this.castlings = castlings;
+    this.enPassant = enPassant;
+    this.hash = hash;
+  }
+
+  long getCastlings() {
+    return castlings;
+  }
+
+  int getEnPassant() {
+    return enPassant;
+  }
+
+  @Override
+  public boolean isCastling(Square square) {
+    return (castlings & 1L << StandardBoard.indexOf(square)) != 0;
+  }
+
+  @Override
+  public void addCastling(Square square) {
+    long castling = 1L << StandardBoard.indexOf(square);
+    if ((castlings & castling) == 0) {
+      castlings |= castling;
+      hash ^= Zobrist.castlingKey(square);
+    }
+  }
+
+  @Override
+  public void removeCastling(Square square) {
+    long castling = 1L << StandardBoard.indexOf(square);
+    if ((castlings & castling) != 0) {
+      castlings &= ~castling;
+      hash ^= Zobrist.castlingKey(square);
+    }
+  }
+
+  @Override
+  public boolean isEnPassant(Square square) {
+    return enPassant == StandardBoard.indexOf(square);
+  }
+
+  @Override
+  public void setEnPassant(Square enPassant) {
+    resetEnPassant();
+    this.enPassant = StandardBoard.indexOf(enPassant);
+    hash ^= Zobrist.enPassantKey(this.enPassant);
+  }
+
+  @Override
+  public void resetEnPassant() {
+    if (enPassant != NO_EN_PASSANT) {
+      hash ^= Zobrist.enPassantKey(enPassant);
+      this.enPassant = NO_EN_PASSANT;
+    }
+  }
+
+  @Override
+  public long getHash() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", PackedState.class.getSimpleName() + "[", "]").add(
+            "castlings=" + Long.toHexString(castlings)).add("enPassant=" + enPassant)
+        .toString();
+  }
+}
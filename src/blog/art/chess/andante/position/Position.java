@@ -25,21 +25,58 @@
 package blog.art.chess.andante.position;
 
 import blog.art.chess.andante.condition.MoveFactory;
+import blog.art.chess.andante.move.Castling;
+import blog.art.chess.andante.move.EnPassant;
 import blog.art.chess.andante.move.Move;
+import blog.art.chess.andante.move.Promotion;
+import blog.art.chess.andante.move.QuietMove;
 import blog.art.chess.andante.piece.Colour;
 import blog.art.chess.andante.piece.Piece;
+import blog.art.chess.andante.piece.category.Hopper;
+import blog.art.chess.andante.piece.category.Leaper;
+import blog.art.chess.andante.piece.category.Rider;
+import blog.art.chess.andante.piece.orthodox.Pawn;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 
 public class Position {
 
+  private static final int RIDES = 0;
+  private static final int LEAPS = 1;
+  private static final int HOPS = 2;
+  private static final int QUIET = 1;
+  private static final int CHECK = 2;
+  private static final int CAPTURE = 4;
+  private static final int CHECKING_CAPTURE = 8;
+  private static final int KILLER = 0;
+  private static final int ROYALS = 1;
+  private static final int[] STAGES = {QUIET | CHECK | CAPTURE | CHECKING_CAPTURE,
+      QUIET | CHECK | CAPTURE | CHECKING_CAPTURE, CAPTURE | CHECKING_CAPTURE, CHECK, QUIET};
+  private static final int[] CHECKING_STAGES = {0, 0, CHECK | CHECKING_CAPTURE};
+  private static final int[] NON_CHECKING_STAGES = {0, 0, QUIET | CAPTURE};
+  private static final int MAX_OFFSET = 2;
+  private static final int N_OFFSETS = 2 * MAX_OFFSET + 1;
+
   private final Board board;
   private final Box box;
   private final Table table;
   private Colour sideToMove;
-  private State state;
+  private final State state;
   private final Memory memory;
   private final MoveFactory moveFactory;
+  private final List<Direction> probes;
+  private final int[] probeNos;
+  private final boolean strict;
+  private final Map<Class<? extends Piece>, int[]> masks = new HashMap<>();
+  private final MoveStack moveStack = new MoveStack();
+  private final List<Square> attackers = new ArrayList<>();
+  private final List<MoveGenerator> moveGenerators = new ArrayList<>();
+  private int nMoveGenerators;
 
   public Position(Board board, Box box, Table table, Colour sideToMove, State state, Memory memory,
       MoveFactory moveFactory) {
@@ -50,6 +87,56 @@ public class Position {
     this.state = state;
     this.memory = memory;
     this.moveFactory = moveFactory;
+    this.probes = board.getDirections(0, 1, 1, 1, 1, 2);
+    this.probeNos = findProbeNos(probes);
+    this.strict = isStrict(board, box, moveFactory);
+  }
+
+  private Position(Position position) {
+    this.board = position.board.copy();
+    this.box = position.box.copy();
+    this.table = position.table.copy();
+    this.sideToMove = position.sideToMove;
+    this.state = position.state.copy();
+    this.memory = position.memory.copy();
+    this.moveFactory = position.moveFactory;
+    this.probes = position.probes;
+    this.probeNos = position.probeNos;
+    this.strict = position.strict;
+  }
+
+  public Position copy() {
+    return new Position(this);
+  }
+
+  private static boolean isStrict(Board board, Box box, MoveFactory moveFactory) {
+    if (!moveFactory.isOrthodox()) {
+      return false;
+    }
+    for (Colour colour : Colour.values()) {
+      for (Square origin : board.findOrigins(colour)) {
+        if (board.get(origin) instanceof Hopper) {
+          return false;
+        }
+      }
+      for (Section section : box.findSections(colour)) {
+        if (box.peek(section) instanceof Hopper) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static int[] findProbeNos(List<Direction> probes) {
+    int[] probeNos = new int[N_OFFSETS * N_OFFSETS];
+    Arrays.fill(probeNos, -1);
+    for (int index = 0; index < probes.size(); index++) {
+      Direction direction = probes.get(index);
+      probeNos[(direction.fileOffset() + MAX_OFFSET) * N_OFFSETS + direction.rankOffset()
+          + MAX_OFFSET] = index;
+    }
+    return probeNos;
   }
 
   public Board getBoard() {
@@ -72,55 +159,595 @@ public class Position {
     return state;
   }
 
-  public void setState(State state) {
-    this.state = state;
-  }
-
   public Memory getMemory() {
     return memory;
   }
 
+  public MoveStack getMoveStack() {
+    return moveStack;
+  }
+
+  public MoveGenerator pushMoveGenerator() {
+    return pushMoveGenerator(null, null);
+  }
+
+  public MoveGenerator pushMoveGenerator(Move killer, Comparator<Move> comparator) {
+    return pushMoveGenerator(STAGES, killer, comparator);
+  }
+
+  public MoveGenerator pushMoveGenerator(boolean checks) {
+    return pushMoveGenerator(checks ? CHECKING_STAGES : NON_CHECKING_STAGES, null, null);
+  }
+
+  private MoveGenerator pushMoveGenerator(int[] stages, Move killer,
+      Comparator<Move> comparator) {
+    if (nMoveGenerators == moveGenerators.size()) {
+      moveGenerators.add(new MoveGenerator());
+    }
+    MoveGenerator moveGenerator = moveGenerators.get(nMoveGenerators++);
+    moveGenerator.reset(stages, killer, comparator);
+    return moveGenerator;
+  }
+
+  public void popMoveGenerator() {
+    nMoveGenerators--;
+  }
+
+  public boolean isStrict() {
+    return strict;
+  }
+
+  public long getHash() {
+    return board.getHash() ^ state.getHash() ^ Zobrist.sideToMoveKey(sideToMove);
+  }
+
   public boolean isLegal(List<Move> pseudoLegalMoves) {
-    for (Square origin : board.findOrigins()) {
-      Piece piece = board.get(origin);
-      if (piece.getColour() == sideToMove) {
-        if (!piece.generateMoves(board, box, state, origin, moveFactory, pseudoLegalMoves)) {
+    if (pseudoLegalMoves == null) {
+      List<Square> royals = board.findRoyals(sideToMove.getOpposite());
+      for (int index = 0; index < royals.size(); index++) {
+        if (findAttackers(royals.get(index), sideToMove, null, null)) {
           return false;
         }
       }
+      return true;
+    }
+    List<Square> origins = board.findOrigins(sideToMove);
+    for (int index = 0; index < origins.size(); index++) {
+      Square origin = origins.get(index);
+      if (!board.get(origin).generateMoves(board, box, state, origin, moveFactory,
+          pseudoLegalMoves)) {
+        return false;
+      }
+    }
+    if (strict) {
+      filterMoves(pseudoLegalMoves);
     }
     return true;
   }
 
-  public int isCheck() {
-    memory.push(state.copy());
-    state.resetEnPassant();
-    toggleSideToMove();
-    int nChecks = 0;
-    for (Square origin : board.findOrigins()) {
-      Piece piece = board.get(origin);
-      if (piece.getColour() == sideToMove) {
-        if (!piece.generateMoves(board, box, state, origin, moveFactory, null)) {
-          nChecks++;
+  public int countMoves(int limit) {
+    List<Move> pseudoLegalMoves = moveStack.push();
+    Filter filter = findFilter();
+    int nMoves = 0;
+    List<Square> origins = board.findOrigins(sideToMove);
+    for (int index = 0; index < origins.size() && nMoves < limit; index++) {
+      Square origin = origins.get(index);
+      pseudoLegalMoves.clear();
+      board.get(origin).generateMoves(board, box, state, origin, moveFactory, pseudoLegalMoves);
+      for (int moveNo = 0; moveNo < pseudoLegalMoves.size() && nMoves < limit; moveNo++) {
+        if (filter == null || filter.test(pseudoLegalMoves.get(moveNo))) {
+          nMoves++;
         }
       }
     }
-    toggleSideToMove();
-    state = memory.pop();
-    return nChecks;
+    moveStack.pop();
+    return nMoves;
   }
 
-  public boolean isTerminal(List<Move> pseudoLegalMoves) {
-    for (Move move : pseudoLegalMoves) {
-      boolean result = move.make(this, null, null, null);
-      move.unmake(this);
-      if (result) {
+  private void filterMoves(List<Move> pseudoLegalMoves) {
+    Filter filter = findFilter();
+    if (filter == null) {
+      return;
+    }
+    int size = 0;
+    for (int index = 0; index < pseudoLegalMoves.size(); index++) {
+      Move move = pseudoLegalMoves.get(index);
+      if (filter.test(move)) {
+        pseudoLegalMoves.set(size++, move);
+      }
+    }
+    pseudoLegalMoves.subList(size, pseudoLegalMoves.size()).clear();
+  }
+
+  private Filter findFilter() {
+    List<Square> royals = board.findRoyals(sideToMove);
+    if (strict && royals.isEmpty()) {
+      return null;
+    }
+    return new Filter(strict && royals.size() == 1 ? royals.get(0) : null);
+  }
+
+  private void findPins(Square royal, List<Square> pins, List<List<Square>> pinLines) {
+    for (int index = 0; index < probes.size(); index++) {
+      Direction direction = probes.get(index);
+      Square obstacle = board.findObstacle(royal, direction);
+      if (obstacle == null || board.get(obstacle).getColour() != sideToMove) {
+        continue;
+      }
+      Square origin = board.findObstacle(obstacle, direction);
+      if (origin != null) {
+        Piece piece = board.get(origin);
+        if (piece.getColour() != sideToMove && (findMasks(piece)[RIDES] & 1 << index) != 0) {
+          List<Square> pinLine = new ArrayList<>();
+          findLine(royal, direction, origin, pinLine);
+          pins.add(obstacle);
+          pinLines.add(pinLine);
+        }
+      }
+    }
+  }
+
+  private void findEvasions(Square royal, Square checker, List<Square> evasions) {
+    for (int index = 0; index < probes.size(); index++) {
+      Direction direction = probes.get(index);
+      if (checker.equals(board.findObstacle(royal, direction))) {
+        findLine(royal, direction, checker, evasions);
+        return;
+      }
+    }
+  }
+
+  private void findLine(Square origin, Direction direction, Square end, List<Square> line) {
+    int distance = 1;
+    while (true) {
+      Square target = board.findTarget(origin, direction, distance);
+      line.add(target);
+      if (target.equals(end)) {
+        return;
+      }
+      distance++;
+    }
+  }
+
+  public int isCheck() {
+    attackers.clear();
+    List<Square> royals = board.findRoyals(sideToMove);
+    for (int index = 0; index < royals.size(); index++) {
+      findAttackers(royals.get(index), sideToMove.getOpposite(), attackers, null);
+    }
+    return attackers.size();
+  }
+
+  public boolean isCheck(Move move) {
+    if (strict && move instanceof QuietMove quietMove && !(move instanceof Promotion)
+        && !(move instanceof EnPassant) && !(move instanceof Castling)) {
+      return isCheck(quietMove.getOrigin(), quietMove.getTarget());
+    }
+    boolean result = move.make(this, null, null, null) && isCheck() > 0;
+    move.unmake(this);
+    return result;
+  }
+
+  public boolean isCapture(Move move) {
+    return move instanceof EnPassant
+        || move instanceof QuietMove quietMove && board.get(quietMove.getTarget()) != null;
+  }
+
+  private boolean isCheck(Square origin, Square target) {
+    List<Square> royals = board.findRoyals(sideToMove.getOpposite());
+    for (int index = 0; index < royals.size(); index++) {
+      Square royal = royals.get(index);
+      if (isDirectCheck(origin, target, royal) || isDiscoveredCheck(origin, target, royal)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isDirectCheck(Square origin, Square target, Square royal) {
+    int probeNo = findProbeNo(royal, target);
+    if (probeNo < 0) {
+      return false;
+    }
+    int distance = findDistance(royal, target);
+    if (!isAttacking(board.get(origin), sideToMove, probeNo, distance == 1) || !isRoyalCapture(
+        origin, royal)) {
+      return false;
+    }
+    Direction direction = probes.get(probeNo);
+    for (int step = 1; step < distance; step++) {
+      Square square = board.findTarget(royal, direction, step);
+      if (board.get(square) != null && !square.equals(origin)) {
         return false;
       }
     }
     return true;
   }
 
+  private boolean isDiscoveredCheck(Square origin, Square target, Square royal) {
+    int probeNo = findProbeNo(royal, origin);
+    if (probeNo < 0) {
+      return false;
+    }
+    Direction direction = probes.get(probeNo);
+    if (!origin.equals(board.findObstacle(royal, direction))) {
+      return false;
+    }
+    Square checker = board.findObstacle(origin, direction);
+    if (checker == null || !isAttacking(board.get(checker), sideToMove, probeNo, false)) {
+      return false;
+    }
+    return findProbeNo(royal, target) != probeNo
+        || findDistance(royal, target) > findDistance(royal, checker);
+  }
+
+  private int findProbeNo(Square origin, Square target) {
+    int distance = findDistance(origin, target);
+    if (distance == 0) {
+      return -1;
+    }
+    int fileOffset = (target.file() - origin.file()) / distance;
+    int rankOffset = (target.rank() - origin.rank()) / distance;
+    if (Math.abs(fileOffset) > MAX_OFFSET || Math.abs(rankOffset) > MAX_OFFSET) {
+      return -1;
+    }
+    return probeNos[(fileOffset + MAX_OFFSET) * N_OFFSETS + rankOffset + MAX_OFFSET];
+  }
+
+  private static int findDistance(Square origin, Square target) {
+    int fileDistance = Math.abs(target.file() - origin.file());
+    int rankDistance = Math.abs(target.rank() - origin.rank());
+    while (rankDistance != 0) {
+      int remainder = fileDistance % rankDistance;
+      fileDistance = rankDistance;
+      rankDistance = remainder;
+    }
+    return fileDistance;
+  }
+
+  private boolean findAttackers(Square target, Colour colour, List<Square> attackers,
+      Square transparent) {
+    boolean result = false;
+    for (int index = 0; index < probes.size(); index++) {
+      Direction direction = probes.get(index);
+      Square obstacle = board.findObstacle(target, direction);
+      if (obstacle == null) {
+        continue;
+      }
+      boolean adjacent = obstacle.equals(board.findTarget(target, direction, 1));
+      if (obstacle.equals(transparent)) {
+        obstacle = board.findObstacle(obstacle, direction);
+        if (obstacle == null) {
+          continue;
+        }
+        adjacent = false;
+      }
+      if (isAttacking(board.get(obstacle), colour, index, adjacent) && isRoyalCapture(obstacle,
+          target)) {
+        if (attackers == null) {
+          return true;
+        }
+        if (!attackers.contains(obstacle)) {
+          attackers.add(obstacle);
+        }
+        result = true;
+      }
+      if (adjacent && !strict) {
+        Square origin = board.findObstacle(obstacle, direction);
+        if (origin != null && isHopping(board.get(origin), colour, index) && isRoyalCapture(
+            origin, target)) {
+          if (attackers == null) {
+            return true;
+          }
+          if (!attackers.contains(origin)) {
+            attackers.add(origin);
+          }
+          result = true;
+        }
+      }
+    }
+    return result;
+  }
+
+  private boolean isAttacking(Piece piece, Colour colour, int index, boolean adjacent) {
+    if (piece.getColour() != colour) {
+      return false;
+    }
+    int[] masks = findMasks(piece);
+    if ((masks[RIDES] & 1 << index) != 0) {
+      return true;
+    }
+    if (!adjacent) {
+      return false;
+    }
+    if ((masks[LEAPS] & 1 << index) != 0) {
+      return true;
+    }
+    int rankOffset = switch (colour) {
+      case WHITE -> 1;
+      case BLACK -> -1;
+    };
+    Direction direction = probes.get(index);
+    return piece instanceof Pawn && Math.abs(direction.fileOffset()) == 1
+        && direction.rankOffset() == -rankOffset;
+  }
+
+  private boolean isHopping(Piece piece, Colour colour, int index) {
+    return piece.getColour() == colour && (findMasks(piece)[HOPS] & 1 << index) != 0;
+  }
+
+  private int[] findMasks(Piece piece) {
+    int[] pieceMasks = masks.get(piece.getClass());
+    if (pieceMasks == null) {
+      pieceMasks = new int[3];
+      for (int index = 0; index < probes.size(); index++) {
+        Direction direction = probes.get(index);
+        Direction opposite = board.getDirection(-direction.fileOffset(), -direction.rankOffset());
+        if (piece instanceof Rider rider && rider.getRides(board).contains(opposite)) {
+          pieceMasks[RIDES] |= 1 << index;
+        }
+        if (piece instanceof Leaper leaper && leaper.getLeaps(board).contains(opposite)) {
+          pieceMasks[LEAPS] |= 1 << index;
+        }
+        if (piece instanceof Hopper hopper && hopper.getHops(board).contains(opposite)) {
+          pieceMasks[HOPS] |= 1 << index;
+        }
+      }
+      masks.put(piece.getClass(), pieceMasks);
+    }
+    return pieceMasks;
+  }
+
+  private boolean isRoyalCapture(Square origin, Square target) {
+    Piece piece = board.get(origin);
+    boolean promotion =
+        piece instanceof Pawn && board.isRebirthSquare(target, Piece.class, piece.getColour());
+    if (strict) {
+      return !promotion || !box.findSections(piece.getColour()).isEmpty();
+    }
+    if (promotion) {
+      for (Section section : box.findSections(piece.getColour())) {
+        if (!moveFactory.createPromotionCapture(board, box, origin, target, section, null)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return !moveFactory.createCapture(board, origin, target, null);
+  }
+
+  public boolean isTerminal() {
+    return countMoves(1) == 0;
+  }
+
+  public class MoveGenerator {
+
+    private final StageFactory stageFactory = new StageFactory();
+    private final List<Move> pieceMoves = new ArrayList<>();
+    private int[] stages;
+    private Move killer;
+    private Comparator<Move> comparator;
+    private Filter filter;
+    private List<Square> origins;
+    private int stageNo;
+    private int originNo;
+    private int moveNo;
+
+    private void reset(int[] stages, Move killer, Comparator<Move> comparator) {
+      pieceMoves.clear();
+      this.stages = stages;
+      this.killer = killer;
+      this.comparator = comparator;
+      filter = strict ? findFilter() : null;
+      origins = board.findOrigins(sideToMove);
+      stageNo = KILLER;
+      originNo = 0;
+      moveNo = 0;
+    }
+
+    public Move next() {
+      while (true) {
+        if (moveNo < pieceMoves.size()) {
+          Move move = pieceMoves.get(moveNo++);
+          if ((move == killer || killer == null || !killer.matches(move)) && (filter == null
+              || filter.test(move))) {
+            return move;
+          }
+        } else if (stageNo == KILLER) {
+          findKiller();
+          stageNo = ROYALS;
+        } else if (originNo < origins.size() && stages[stageNo] != 0) {
+          Square origin = origins.get(originNo++);
+          Piece piece = board.get(origin);
+          if (stageNo == ROYALS ? piece.isRoyal() : stages[ROYALS] == 0 || !piece.isRoyal()) {
+            pieceMoves.clear();
+            moveNo = 0;
+            stageFactory.categories = stages[stageNo];
+            piece.generateMoves(board, box, state, origin, stageFactory, pieceMoves);
+            if (comparator != null && pieceMoves.size() > 1) {
+              pieceMoves.sort(comparator);
+            }
+          }
+        } else if (stageNo < stages.length - 1) {
+          stageNo++;
+          originNo = 0;
+        } else {
+          return null;
+        }
+      }
+    }
+
+    private void findKiller() {
+      Move storedKiller = killer;
+      killer = null;
+      if (storedKiller instanceof QuietMove quietMove) {
+        Square origin = quietMove.getOrigin();
+        Piece piece = board.get(origin);
+        if (piece != null && piece.getColour() == sideToMove) {
+          stageFactory.categories = STAGES[KILLER];
+          piece.generateMoves(board, box, state, origin, stageFactory, pieceMoves);
+          for (int index = 0; index < pieceMoves.size() && killer == null; index++) {
+            if (storedKiller.matches(pieceMoves.get(index))) {
+              killer = pieceMoves.get(index);
+            }
+          }
+          pieceMoves.clear();
+          if (killer != null) {
+            pieceMoves.add(killer);
+          }
+        }
+      }
+    }
+  }
+
+  private class StageFactory extends MoveFactory {
+
+    private final List<Move> createdMoves = new ArrayList<>();
+    private int categories;
+
+    @Override
+    public boolean isOrthodox() {
+      return moveFactory.isOrthodox();
+    }
+
+    @Override
+    public void newQuietMove(Square origin, Square target, List<Move> moves) {
+      List<Move> selectedMoves = select(false, origin, target, moves);
+      moveFactory.newQuietMove(origin, target, selectedMoves);
+      addSelected(false, selectedMoves, moves);
+    }
+
+    @Override
+    public boolean createCapture(Board board, Square origin, Square target, List<Move> moves) {
+      List<Move> selectedMoves = select(true, origin, target, moves);
+      boolean result = moveFactory.createCapture(board, origin, target, selectedMoves);
+      addSelected(true, selectedMoves, moves);
+      return result;
+    }
+
+    @Override
+    public void newLongCastling(Square origin, Square target, Square origin2, Square target2,
+        List<Move> moves) {
+      List<Move> selectedMoves = select(false, moves);
+      moveFactory.newLongCastling(origin, target, origin2, target2, selectedMoves);
+      addSelected(false, selectedMoves, moves);
+    }
+
+    @Override
+    public void newShortCastling(Square origin, Square target, Square origin2, Square target2,
+        List<Move> moves) {
+      List<Move> selectedMoves = select(false, moves);
+      moveFactory.newShortCastling(origin, target, origin2, target2, selectedMoves);
+      addSelected(false, selectedMoves, moves);
+    }
+
+    @Override
+    public void newDoubleStep(Square origin, Square target, Square stop, List<Move> moves) {
+      List<Move> selectedMoves = select(false, origin, target, moves);
+      moveFactory.newDoubleStep(origin, target, stop, selectedMoves);
+      addSelected(false, selectedMoves, moves);
+    }
+
+    @Override
+    public boolean createEnPassant(Board board, Square origin, Square target, Square stop,
+        List<Move> moves) {
+      List<Move> selectedMoves = select(true, moves);
+      boolean result = moveFactory.createEnPassant(board, origin, target, stop, selectedMoves);
+      addSelected(true, selectedMoves, moves);
+      return result;
+    }
+
+    @Override
+    public void newPromotion(Square origin, Square target, Section section, List<Move> moves) {
+      List<Move> selectedMoves = select(false, moves);
+      moveFactory.newPromotion(origin, target, section, selectedMoves);
+      addSelected(false, selectedMoves, moves);
+    }
+
+    @Override
+    public boolean createPromotionCapture(Board board, Box box, Square origin, Square target,
+        Section section, List<Move> moves) {
+      List<Move> selectedMoves = select(true, moves);
+      boolean result = moveFactory.createPromotionCapture(board, box, origin, target, section,
+          selectedMoves);
+      addSelected(true, selectedMoves, moves);
+      return result;
+    }
+
+    private int findKinds(boolean capture) {
+      return categories & (capture ? CAPTURE | CHECKING_CAPTURE : QUIET | CHECK);
+    }
+
+    private List<Move> select(boolean capture, Square origin, Square target, List<Move> moves) {
+      int kinds = findKinds(capture);
+      if (!strict || Integer.bitCount(kinds) != 1) {
+        return select(capture, moves);
+      }
+      return (kinds & (isCheck(origin, target) ? CHECK | CHECKING_CAPTURE : QUIET | CAPTURE))
+          != 0 ? moves : null;
+    }
+
+    private List<Move> select(boolean capture, List<Move> moves) {
+      int kinds = findKinds(capture);
+      if (Integer.bitCount(kinds) != 1) {
+        return kinds == 0 ? null : moves;
+      }
+      createdMoves.clear();
+      return createdMoves;
+    }
+
+    private void addSelected(boolean capture, List<Move> selectedMoves, List<Move> moves) {
+      if (selectedMoves != createdMoves) {
+        return;
+      }
+      int kinds = findKinds(capture);
+      for (int index = 0; index < createdMoves.size(); index++) {
+        Move move = createdMoves.get(index);
+        if ((kinds & (isCheck(move) ? CHECK | CHECKING_CAPTURE : QUIET | CAPTURE)) != 0) {
+          moves.add(move);
+        }
+      }
+    }
+  }
+
+  private class Filter {
+
+    private final Square royal;
+    private final List<Square> checkers = new ArrayList<>();
+    private final List<Square> pins = new ArrayList<>();
+    private final List<List<Square>> pinLines = new ArrayList<>();
+    private final List<Square> evasions = new ArrayList<>();
+
+    Filter(Square royal) {
+      this.royal = royal;
+      if (royal != null) {
+        findAttackers(royal, sideToMove.getOpposite(), checkers, null);
+        findPins(royal, pins, pinLines);
+        if (checkers.size() == 1) {
+          findEvasions(royal, checkers.get(0), evasions);
+        }
+      }
+    }
+
+    boolean test(Move move) {
+      if (royal != null && move instanceof QuietMove quietMove && !(move instanceof EnPassant)
+          && !(move instanceof Castling)) {
+        Square target = quietMove.getTarget();
+        int pinNo = pins.indexOf(quietMove.getOrigin());
+        if (quietMove.getOrigin().equals(royal)) {
+          return !findAttackers(target, sideToMove.getOpposite(), null, royal);
+        } else if (pinNo >= 0 && !pinLines.get(pinNo).contains(target)) {
+          return false;
+        } else {
+          return checkers.isEmpty() || evasions.contains(target);
+        }
+      }
+      boolean result = move.make(Position.this, null, null, null);
+      move.unmake(Position.this);
+      return result;
+    }
+  }
+
   @Override
   public String toString() {
     return new StringJoiner(", ", Position.class.getSimpleName() + "[", "]").add("board=" + board)
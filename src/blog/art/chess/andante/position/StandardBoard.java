@@ -33,6 +33,10 @@ import blog.art.chess.andante.piece.orthodox.Pawn;
 import blog.art.chess.andante.piece.orthodox.Queen;
 import blog.art.chess.andante.piece.orthodox.Rook;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -62,28 +66,164 @@ public abstract class StandardBoard implements Board {
     static final int LAST = 8;
   }
 
+  private static final int[][] BASE_OFFSETS = {{0, 1}, {0, 2}, {1, 1}, {1, 2}, {2, 2}};
+
+  private final Map<Colour, List<Square>> origins = new EnumMap<>(Colour.class);
+  private final Map<Colour, List<Square>> originViews = new EnumMap<>(Colour.class);
+  private final Map<Colour, List<Square>> royals = new EnumMap<>(Colour.class);
+  private final Map<Colour, List<Square>> royalViews = new EnumMap<>(Colour.class);
+
+  private long hash;
+
+  protected StandardBoard() {
+    for (Colour colour : Colour.values()) {
+      List<Square> squares = new ArrayList<>();
+      origins.put(colour, squares);
+      originViews.put(colour, Collections.unmodifiableList(squares));
+      List<Square> royalSquares = new ArrayList<>();
+      royals.put(colour, royalSquares);
+      royalViews.put(colour, Collections.unmodifiableList(royalSquares));
+    }
+  }
+
+  protected StandardBoard(StandardBoard board) {
+    for (Colour colour : Colour.values()) {
+      List<Square> squares = new ArrayList<>(board.origins.get(colour));
+      origins.put(colour, squares);
+      originViews.put(colour, Collections.unmodifiableList(squares));
+      List<Square> royalSquares = new ArrayList<>(board.royals.get(colour));
+      royals.put(colour, royalSquares);
+      royalViews.put(colour, Collections.unmodifiableList(royalSquares));
+    }
+    this.hash = board.hash;
+  }
+
+  protected abstract Piece set(Square square, Piece piece);
+
+  @Override
+  public void put(Square square, Piece piece) {
+    Piece previous = set(square, piece);
+    if (previous != null) {
+      removeOrigin(square, previous);
+      hash ^= Zobrist.pieceKey(previous, square);
+    }
+    addOrigin(square, piece);
+    hash ^= Zobrist.pieceKey(piece, square);
+  }
+
+  @Override
+  public Piece remove(Square square) {
+    Piece piece = set(square, null);
+    if (piece != null) {
+      removeOrigin(square, piece);
+      hash ^= Zobrist.pieceKey(piece, square);
+    }
+    return piece;
+  }
+
+  @Override
+  public long getHash() {
+    return hash;
+  }
+
+  @Override
+  public List<Square> findOrigins(Colour colour) {
+    return originViews.get(colour);
+  }
+
+  @Override
+  public List<Square> findRoyals(Colour colour) {
+    return royalViews.get(colour);
+  }
+
+  private void addOrigin(Square square, Piece piece) {
+    List<Square> squares = origins.get(piece.getColour());
+    squares.add(-searchOrigin(squares, square) - 1, square);
+    if (piece.isRoyal()) {
+      royals.get(piece.getColour()).add(square);
+    }
+  }
+
+  private void removeOrigin(Square square, Piece piece) {
+    List<Square> squares = origins.get(piece.getColour());
+    squares.remove(searchOrigin(squares, square));
+    if (piece.isRoyal()) {
+      royals.get(piece.getColour()).remove(square);
+    }
+  }
+
+  private static int searchOrigin(List<Square> squares, Square square) {
+    int key = indexOf(square);
+    int low = 0;
+    int high = squares.size() - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int index = indexOf(squares.get(middle));
+      if (index < key) {
+        low = middle + 1;
+      } else if (index > key) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  static int indexOf(Square square) {
+    return (square.file() - File.FIRST) * (Rank.LAST - Rank.FIRST + 1) + square.rank()
+        - Rank.FIRST;
+  }
+
   protected abstract Map<Set<Direction>, List<Direction>> getAllDirections();
 
+  protected static Map<Set<Direction>, List<Direction>> computeAllDirections(StandardBoard board) {
+    Map<Set<Direction>, List<Direction>> allDirections = new HashMap<>();
+    for (int subset = 1; subset < 1 << BASE_OFFSETS.length; subset++) {
+      Set<Direction> bases = new HashSet<>();
+      for (int baseNo = 0; baseNo < BASE_OFFSETS.length; baseNo++) {
+        if ((subset & 1 << baseNo) != 0) {
+          bases.add(board.getDirection(BASE_OFFSETS[baseNo][0], BASE_OFFSETS[baseNo][1]));
+        }
+      }
+      allDirections.put(Set.copyOf(bases), board.computeDirections(bases));
+    }
+    return Map.copyOf(allDirections);
+  }
+
   @Override
   public List<Direction> getDirections(int baseFileOffset, int baseRankOffset) {
-    return getAllDirections().computeIfAbsent(Set.of(getDirection(baseFileOffset, baseRankOffset)),
-        this::computeDirections);
+    return findDirections(Set.of(getBase(baseFileOffset, baseRankOffset)));
   }
 
   @Override
   public List<Direction> getDirections(int base1FileOffset, int base1RankOffset,
       int base2FileOffset, int base2RankOffset) {
-    return getAllDirections().computeIfAbsent(Set.of(getDirection(base1FileOffset, base1RankOffset),
-        getDirection(base2FileOffset, base2RankOffset)), this::computeDirections);
+    Direction base1 = getBase(base1FileOffset, base1RankOffset);
+    Direction base2 = getBase(base2FileOffset, base2RankOffset);
+    return findDirections(base1.equals(base2) ? Set.of(base1) : Set.of(base1, base2));
   }
 
   @Override
   public List<Direction> getDirections(int... baseOffsets) {
     List<Direction> bases = new ArrayList<>();
     for (int halfNo = 0; halfNo < baseOffsets.length / 2; halfNo++) {
-      bases.add(getDirection(baseOffsets[halfNo * 2], baseOffsets[halfNo * 2 + 1]));
+      bases.add(getBase(baseOffsets[halfNo * 2], baseOffsets[halfNo * 2 + 1]));
     }
-    return getAllDirections().computeIfAbsent(Set.copyOf(bases), this::computeDirections);
+    return findDirections(Set.copyOf(bases));
+  }
+
+  private Direction getBase(int fileOffset, int rankOffset) {
+    return getDirection(Math.min(Math.abs(fileOffset), Math.abs(rankOffset)),
+        Math.max(Math.abs(fileOffset), Math.abs(rankOffset)));
+  }
+
+  private List<Direction> findDirections(Set<Direction> bases) {
+    List<Direction> directions = getAllDirections().get(bases);
+    if (directions == null) {
+      directions = computeDirections(bases);
+    }
+    return directions;
   }
 
   private List<Direction> computeDirections(Set<Direction> bases) {
@@ -99,6 +239,18 @@ public abstract class StandardBoard implements Board {
     return List.copyOf(directions);
   }
 
+  @Override
+  public Square findObstacle(Square origin, Direction direction) {
+    int distance = 1;
+    while (true) {
+      Square target = findTarget(origin, direction, distance);
+      if (target == null || get(target) != null) {
+        return target;
+      }
+      distance++;
+    }
+  }
+
   @Override
   public boolean isRebirthSquare(Square square, Class<? extends Piece> pieceType, Colour colour) {
     return switch (colour) {
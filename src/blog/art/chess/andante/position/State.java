@@ -28,6 +28,8 @@ public interface State {
 
   State copy();
 
+  void restore(State state);
+
   boolean isCastling(Square square);
 
   void addCastling(Square square);
@@ -39,4 +41,6 @@ public interface State {
   void setEnPassant(Square enPassant);
 
   void resetEnPassant();
+
+  long getHash();
 }
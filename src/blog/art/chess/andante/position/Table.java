@@ -28,6 +28,8 @@ import blog.art.chess.andante.piece.Piece;
 
 public interface Table {
 
+  Table copy();
+
   Piece pop();
 
   void push(Piece piece);
@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.position;
+
+import blog.art.chess.andante.piece.Colour;
+import blog.art.chess.andante.piece.Piece;
+import java.util.SplittableRandom;
+
+final class Zobrist {
+
+  private static final int N_SQUARES = 64;
+
+  private static final ClassValue<long[]> pieceKeys = new ClassValue<>() {
+    @Override
+    protected long[] computeValue(Class<?> type) {
+      return new SplittableRandom(type.getName().hashCode()).longs(
+          (long) Colour.values().length * N_SQUARES).toArray();
+    }
+  };
+
+  private static final long[] castlingKeys = new SplittableRandom(
+      Zobrist.class.getName().hashCode()).longs(N_SQUARES).toArray();
+
+  private static final long[] enPassantKeys = new SplittableRandom(
+      ~Zobrist.class.getName().hashCode()).longs(N_SQUARES).toArray();
+
+  private static final long sideToMoveKey = new SplittableRandom(
+      Colour.class.getName().hashCode()).nextLong();
+
+  private Zobrist() {
+  }
+
+  static long pieceKey(Piece piece, Square square) {
+    return pieceKeys.get(piece.getClass())[piece.getColour().ordinal() * N_SQUARES
+        + StandardBoard.indexOf(square)];
+  }
+
+  static long castlingKey(Square square) {
+    return castlingKeys[StandardBoard.indexOf(square)];
+  }
+
+  static long enPassantKey(Square square) {
+    return enPassantKey(StandardBoard.indexOf(square));
+  }
+
+  static long enPassantKey(int index) {
+    return enPassantKeys[index];
+  }
+
+  static long sideToMoveKey(Colour sideToMove) {
+    return sideToMove == Colour.BLACK ? sideToMoveKey : 0;
+  }
+}
@@ -49,4 +49,16 @@ public interface AnalysisOptions {
   default boolean tempoTries() {
     return false;
   }
+
+  default boolean proofNumbers() {
+    return false;
+  }
+
+  default int hashSize() {
+    return 16;
+  }
+
+  default int nThreads() {
+    return 1;
+  }
 }
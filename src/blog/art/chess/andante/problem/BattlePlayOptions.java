@@ -25,7 +25,8 @@
 package blog.art.chess.andante.problem;
 
 public record BattlePlayOptions(boolean setPlay, int nRefutations, boolean variations,
-                                boolean threats, boolean shortVariations) implements
+                                boolean threats, boolean shortVariations, boolean proofNumbers,
+                                int hashSize, int nThreads) implements
     AnalysisOptions {
 
 }
@@ -31,13 +31,31 @@ import blog.art.chess.andante.solution.Play;
 import blog.art.chess.andante.solution.SolutionWriter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public abstract class BattleProblem extends Problem {
 
+  private static final long BRANCH_KEY = 0x9E3779B97F4A7C15L;
+
   protected final Aim aim;
+  protected TranspositionTable transpositionTable;
+  private ThreadLocal<HistoryTable> historyTable;
+  private Queue<HistoryTable> historyTables;
+  private Map<ThreatKey, Threats> threatTable;
+  private Map<Long, Result> resultTable;
+  private ThreadLocal<EntryStack> entryStack;
+  private ProofNumberSearch proofNumberSearch;
 
   public BattleProblem(Position position, Aim aim, int nMoves) {
     super(position, nMoves);
@@ -46,28 +64,70 @@ public abstract class BattleProblem extends Problem {
 
   @Override
   public void solve(AnalysisOptions analysisOptions, DisplayOptions displayOptions) {
+    transpositionTable = new TranspositionTable(analysisOptions.hashSize());
+    historyTables = new ConcurrentLinkedQueue<>();
+    historyTable = ThreadLocal.withInitial(() -> {
+      HistoryTable workerHistoryTable = new HistoryTable(nMoves);
+      historyTables.add(workerHistoryTable);
+      return workerHistoryTable;
+    });
+    threatTable = new ConcurrentHashMap<>();
+    resultTable = new ConcurrentHashMap<>();
+    entryStack = ThreadLocal.withInitial(EntryStack::new);
+    if (analysisOptions.proofNumbers()) {
+      proofNumberSearch = new ProofNumberSearch(this, aim, analysisOptions.hashSize());
+    }
     solve(position, aim, nMoves, analysisOptions.setPlay(), analysisOptions.nRefutations(),
         analysisOptions.variations(), analysisOptions.threats(), analysisOptions.shortVariations(),
-        displayOptions.outputLanguage(), displayOptions.internalProgress());
+        displayOptions.outputLanguage(), displayOptions.internalProgress(),
+        analysisOptions.nThreads());
+    if (displayOptions.internalProgress()) {
+      for (HistoryTable workerHistoryTable : historyTables) {
+        err.println(logPrefix() + " historyTable=" + workerHistoryTable);
+      }
+      err.println(logPrefix() + " threatTable.size=" + threatTable.size());
+      err.println(logPrefix() + " resultTable.size=" + resultTable.size());
+      if (proofNumberSearch != null) {
+        err.println(logPrefix() + " proofNumberSearch=" + proofNumberSearch);
+      }
+    }
+    transpositionTable = null;
+    historyTable = null;
+    historyTables = null;
+    threatTable = null;
+    resultTable = null;
+    entryStack = null;
+    proofNumberSearch = null;
   }
 
   protected void solve(Position position, Aim aim, int nMoves, boolean includeSetPlay,
       int includeTries, boolean includeVariations, boolean includeThreats,
-      boolean includeShortVariations, Locale locale, boolean logMoves) {
+      boolean includeShortVariations, Locale locale, boolean logMoves, int nThreads) {
     List<Move> pseudoLegalMoves = new ArrayList<>();
     boolean includeActualPlay = position.isLegal(pseudoLegalMoves);
     if (includeActualPlay || includeSetPlay) {
       List<SolutionWriter.Branch> branches = new ArrayList<>();
-      analyseMax(position, aim, nMoves, pseudoLegalMoves, branches, locale, includeVariations,
-          includeThreats, includeShortVariations, includeSetPlay, includeTries, includeActualPlay,
-          includeActualPlay, logMoves);
-      System.out.println(SolutionWriter.toFormatted(SolutionWriter.toGrouped(branches)));
+      if (nThreads > 1) {
+        analyseMax(position, aim, nMoves, pseudoLegalMoves, branches, locale, includeVariations,
+            includeThreats, includeShortVariations, includeSetPlay, includeTries, false, false,
+            logMoves);
+        if (includeActualPlay) {
+          analyseMaxConcurrently(position, aim, nMoves, pseudoLegalMoves, branches, locale,
+              includeVariations, includeThreats, includeShortVariations, includeTries, logMoves,
+              nThreads);
+        }
+      } else {
+        analyseMax(position, aim, nMoves, pseudoLegalMoves, branches, locale, includeVariations,
+            includeThreats, includeShortVariations, includeSetPlay, includeTries, includeActualPlay,
+            includeActualPlay, logMoves);
+      }
+      out.println(SolutionWriter.toFormatted(SolutionWriter.toGrouped(branches)));
     }
     if (!includeActualPlay) {
       if (includeSetPlay) {
-        System.out.println("Illegal position in actual play.");
+        out.println("Illegal position in actual play.");
       } else {
-        System.out.println("Illegal position.");
+        out.println("Illegal position.");
       }
     }
   }
@@ -78,9 +138,9 @@ public abstract class BattleProblem extends Problem {
       int includeTries, boolean includeActualPlay, boolean markKeys, boolean logMoves) {
     if (includeSetPlay && !(depth == getTerminalDepth())) {
       Move move = new NullMove();
-      List<Move> pseudoLegalMovesMin = new ArrayList<>();
+      List<Move> pseudoLegalMovesMin = position.getMoveStack().push();
       if (move.make(position, pseudoLegalMovesMin, null, null)) {
-        int score = searchMin(position, aim, depth, pseudoLegalMovesMin, 0);
+        int score = scoreMin(position, aim, depth, 0);
         List<SolutionWriter.Branch> variations = new ArrayList<>();
         if (score > 0) {
           analyseMin(position, aim, depth - score + 1, pseudoLegalMovesMin, variations, locale,
@@ -91,66 +151,134 @@ public abstract class BattleProblem extends Problem {
         }
         branches.add(new SolutionWriter.Branch(Play.SET, null, variations));
         if (logMoves) {
-          System.err.print(logPrefix() + " depth=" + depth + " move=" + move);
+          err.print(logPrefix() + " depth=" + depth + " move=" + move);
           if (score >= 0) {
-            System.err.println(" score=" + score);
+            err.println(" score=" + score);
           } else {
-            System.err.println(" score<0");
+            err.println(" score<0");
           }
         }
       } else {
-        System.out.println("Illegal position in set play.");
+        out.println("Illegal position in set play.");
       }
       move.unmake(position);
+      position.getMoveStack().pop();
     }
     if (includeActualPlay) {
       for (Move move : pseudoLegalMovesMax) {
-        List<Move> pseudoLegalMovesMin = new ArrayList<>();
-        StringBuilder lanBuilder = new StringBuilder();
-        if (move.make(position, pseudoLegalMovesMin, lanBuilder, locale)) {
-          int score = searchMin(position, aim, depth, pseudoLegalMovesMin, includeTries);
-          if (score > 0) {
-            if (includeVariations && !(depth == getTerminalDepth())) {
-              List<SolutionWriter.Branch> variations = new ArrayList<>();
-              analyseMin(position, aim, depth - score + 1, pseudoLegalMovesMin, variations, locale,
-                  true, includeThreats, includeShortVariations, false);
-              Move.postWrite(position, pseudoLegalMovesMin, lanBuilder);
-              if (markKeys) {
-                branches.add(
-                    new SolutionWriter.Branch(Play.KEY, lanBuilder.toString(), variations));
-              } else {
-                branches.add(new SolutionWriter.Branch(Play.CONTINUATION, lanBuilder.toString(),
-                    variations));
-              }
-            } else {
-              Move.postWrite(position, pseudoLegalMovesMin, lanBuilder);
-              if (markKeys) {
-                branches.add(new SolutionWriter.Branch(Play.KEY, lanBuilder.toString(),
-                    Collections.emptyList()));
-              } else {
-                branches.add(new SolutionWriter.Branch(Play.CONTINUATION, lanBuilder.toString(),
-                    Collections.emptyList()));
-              }
-            }
-          } else if (score >= -includeTries) {
-            List<SolutionWriter.Branch> variations = new ArrayList<>();
-            analyseMin(position, aim, depth, pseudoLegalMovesMin, variations, locale,
-                includeVariations, includeThreats, includeShortVariations, false);
-            Move.postWrite(position, pseudoLegalMovesMin, lanBuilder);
-            branches.add(new SolutionWriter.Branch(Play.TRY, lanBuilder.toString(), variations));
+        analyseMove(position, aim, depth, move, branches, locale, includeVariations,
+            includeThreats, includeShortVariations, includeTries, markKeys, logMoves);
+      }
+    }
+  }
+
+  private void analyseMaxConcurrently(Position position, Aim aim, int depth,
+      List<Move> pseudoLegalMovesMax, List<SolutionWriter.Branch> branches, Locale locale,
+      boolean includeVariations, boolean includeThreats, boolean includeShortVariations,
+      int includeTries, boolean logMoves, int nThreads) {
+    ForkJoinPool pool = new ForkJoinPool(nThreads);
+    try {
+      List<ForkJoinTask<List<SolutionWriter.Branch>>> tasks = new ArrayList<>();
+      for (Move move : pseudoLegalMovesMax) {
+        Position positionCopy = position.copy();
+        tasks.add(pool.submit(() -> {
+          List<SolutionWriter.Branch> moveBranches = new ArrayList<>();
+          analyseMove(positionCopy, aim, depth, move, moveBranches, locale, includeVariations,
+              includeThreats, includeShortVariations, includeTries, true, logMoves);
+          return moveBranches;
+        }));
+      }
+      for (ForkJoinTask<List<SolutionWriter.Branch>> task : tasks) {
+        branches.addAll(task.join());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private void analyseMove(Position position, Aim aim, int depth, Move move,
+      List<SolutionWriter.Branch> branches, Locale locale, boolean includeVariations,
+      boolean includeThreats, boolean includeShortVariations, int includeTries, boolean markKeys,
+      boolean logMoves) {
+    Result result = findResult(position.getHash(), true, depth, 0);
+    boolean terminal = depth == getTerminalDepth();
+    List<Move> pseudoLegalMovesMin = position.getMoveStack().push();
+    if (move.make(position, terminal ? null : pseudoLegalMovesMin, null, null)) {
+      int score;
+      if (result != null && move.matches(result.move())) {
+        score = result.score();
+      } else if (terminal && includeTries == 0 && !evaluateTerminalNode(position, aim)) {
+        score = Integer.MIN_VALUE;
+      } else {
+        score = scoreMin(position, aim, depth, includeTries);
+      }
+      if (score > 0) {
+        if (includeVariations && !terminal) {
+          List<SolutionWriter.Branch> variations = new ArrayList<>();
+          analyseMin(position, aim, depth - score + 1, pseudoLegalMovesMin, variations, locale,
+              true, includeThreats, includeShortVariations, false);
+          String lan = move.toLan(position, locale);
+          if (markKeys) {
+            branches.add(new SolutionWriter.Branch(Play.KEY, lan, variations));
+          } else {
+            branches.add(new SolutionWriter.Branch(Play.CONTINUATION, lan, variations));
           }
-          if (logMoves) {
-            System.err.print(logPrefix() + " depth=" + depth + " move=" + move);
-            if (score >= -includeTries) {
-              System.err.println(" score=" + score);
-            } else {
-              System.err.println(" score<" + -includeTries);
-            }
+        } else {
+          String lan = move.toLan(position, locale);
+          if (markKeys) {
+            branches.add(new SolutionWriter.Branch(Play.KEY, lan, Collections.emptyList()));
+          } else {
+            branches.add(
+                new SolutionWriter.Branch(Play.CONTINUATION, lan, Collections.emptyList()));
           }
         }
-        move.unmake(position);
+      } else if (score >= -includeTries) {
+        if (terminal) {
+          position.isLegal(pseudoLegalMovesMin);
+        }
+        List<SolutionWriter.Branch> variations = new ArrayList<>();
+        analyseMin(position, aim, depth, pseudoLegalMovesMin, variations, locale,
+            includeVariations, includeThreats, includeShortVariations, false);
+        branches.add(new SolutionWriter.Branch(Play.TRY, move.toLan(position, locale), variations));
+      }
+      if (logMoves) {
+        if (score >= -includeTries) {
+          err.println(logPrefix() + " depth=" + depth + " move=" + move + " score=" + score);
+        } else {
+          err.println(
+              logPrefix() + " depth=" + depth + " move=" + move + " score<" + -includeTries);
+        }
       }
     }
+    move.unmake(position);
+    position.getMoveStack().pop();
+  }
+
+  private Threats findThreats(Position position, Aim aim, int depth, Locale locale,
+      boolean includeShortVariations) {
+    ThreatKey key = new ThreatKey(position.getHash(), depth);
+    Threats threats = threatTable.get(key);
+    if (threats == null) {
+      Move move = new NullMove();
+      List<Move> pseudoLegalMovesMax = position.getMoveStack().push();
+      if (move.make(position, pseudoLegalMovesMax, null, null)) {
+        List<SolutionWriter.Branch> branches = new ArrayList<>();
+        int score = scoreMax(position, aim, depth - 1, pseudoLegalMovesMax);
+        if (score > 0) {
+          analyseMax(position, aim, depth - score, pseudoLegalMovesMax, branches, locale, true,
+              true, includeShortVariations, false, 0, true, false, false);
+        }
+        Set<Long> keys = new HashSet<>();
+        for (SolutionWriter.Branch branch : branches) {
+          keys.add(toKey(branch));
+        }
+        threats = new Threats(branches, keys);
+        threatTable.put(key, threats);
+      }
+      move.unmake(position);
+      position.getMoveStack().pop();
+    }
+    return threats;
   }
 
   protected void analyseMin(Position position, Aim aim, int depth, List<Move> pseudoLegalMovesMin,
@@ -158,66 +286,113 @@ public abstract class BattleProblem extends Problem {
       boolean includeThreats, boolean includeShortVariations, boolean includeSetPlay) {
     if (depth == getTerminalDepth()) {
       for (Move move : pseudoLegalMovesMin) {
-        List<Move> pseudoLegalMovesMax = new ArrayList<>();
-        StringBuilder lanBuilder = new StringBuilder();
-        if (move.make(position, pseudoLegalMovesMax, lanBuilder, locale)) {
-          Move.postWrite(position, pseudoLegalMovesMax, lanBuilder);
-          branches.add(new SolutionWriter.Branch(Play.REFUTATION, lanBuilder.toString(),
+        if (move.make(position, null, null, null)) {
+          branches.add(new SolutionWriter.Branch(Play.REFUTATION, move.toLan(position, locale),
               Collections.emptyList()));
         }
         move.unmake(position);
       }
     } else {
-      List<SolutionWriter.Branch> threats = null;
+      Threats threats = null;
       if (depth > 1 && includeVariations && includeThreats && !includeSetPlay) {
-        Move move = new NullMove();
-        List<Move> pseudoLegalMovesMax = new ArrayList<>();
-        if (move.make(position, pseudoLegalMovesMax, null, null)) {
-          int score = searchMax(position, aim, depth - 1, pseudoLegalMovesMax);
-          if (score > 0) {
-            threats = new ArrayList<>();
-            analyseMax(position, aim, depth - score, pseudoLegalMovesMax, threats, locale, true,
-                true, includeShortVariations, false, 0, true, false, false);
-            branches.add(new SolutionWriter.Branch(Play.THREAT, null, threats));
-          } else {
+        Threats cachedThreats = findThreats(position, aim, depth, locale, includeShortVariations);
+        if (cachedThreats != null) {
+          if (cachedThreats.branches().isEmpty()) {
             branches.add(new SolutionWriter.Branch(Play.ZUGZWANG, null, Collections.emptyList()));
+          } else {
+            threats = cachedThreats;
+            branches.add(new SolutionWriter.Branch(Play.THREAT, null, threats.branches()));
           }
         }
-        move.unmake(position);
       }
+      Result result = findResult(position.getHash(), false, depth, 0);
       for (Move move : pseudoLegalMovesMin) {
-        List<Move> pseudoLegalMovesMax = new ArrayList<>();
-        StringBuilder lanBuilder = new StringBuilder();
-        if (move.make(position, pseudoLegalMovesMax, lanBuilder, locale)) {
-          int score = searchMax(position, aim, depth - 1, pseudoLegalMovesMax);
+        boolean refutation = result != null && move.matches(result.move());
+        List<Move> pseudoLegalMovesMax = position.getMoveStack().push();
+        if (move.make(position, refutation ? null : pseudoLegalMovesMax, null, null)) {
+          int score = Integer.MIN_VALUE;
+          if (!refutation) {
+            score = scoreMax(position, aim, depth - 1, pseudoLegalMovesMax);
+          }
           if (score > 0) {
             if ((includeVariations || includeSetPlay) && (score == 1 || includeShortVariations)) {
               List<SolutionWriter.Branch> continuations = new ArrayList<>();
               analyseMax(position, aim, depth - score, pseudoLegalMovesMax, continuations, locale,
                   includeVariations, includeThreats, includeShortVariations, false, 0, true, false,
                   false);
-              if (threats == null || Collections.disjoint(continuations, threats)) {
-                Move.postWrite(position, pseudoLegalMovesMax, lanBuilder);
-                branches.add(new SolutionWriter.Branch(Play.VARIATION, lanBuilder.toString(),
+              if (threats == null || threats.isDisjoint(continuations)) {
+                branches.add(new SolutionWriter.Branch(Play.VARIATION, move.toLan(position, locale),
                     continuations));
               }
             }
           } else if (!includeSetPlay) {
-            Move.postWrite(position, pseudoLegalMovesMax, lanBuilder);
-            branches.add(new SolutionWriter.Branch(Play.REFUTATION, lanBuilder.toString(),
+            branches.add(new SolutionWriter.Branch(Play.REFUTATION, move.toLan(position, locale),
                 Collections.emptyList()));
           }
         }
         move.unmake(position);
+        position.getMoveStack().pop();
+      }
+    }
+  }
+
+  private int scoreMax(Position position, Aim aim, int depth, List<Move> pseudoLegalMovesMax) {
+    Result result = findResult(position.getHash(), true, depth, 0);
+    if (result != null) {
+      return result.score();
+    }
+    if (proofNumberSearch != null && depth > 1) {
+      return proofNumberSearch.searchMax(position, depth, pseudoLegalMovesMax);
+    }
+    return searchMax(position, aim, depth, pseudoLegalMovesMax);
+  }
+
+  private int scoreMin(Position position, Aim aim, int depth, int nRefutations) {
+    Result result = findResult(position.getHash(), false, depth, nRefutations);
+    if (result != null) {
+      return result.score();
+    }
+    if (proofNumberSearch != null && depth > 1) {
+      return proofNumberSearch.searchMin(position, depth, nRefutations);
+    }
+    return searchMin(position, aim, depth, nRefutations);
+  }
+
+  protected void storeResult(long hash, boolean max, int depth, int nRefutations, int score,
+      Move move) {
+    if (depth > 1 && nRefutations == 0 && (score > 0 || !max)) {
+      resultTable.put(TranspositionTable.toKey(hash, max, depth), new Result(score, move));
+    }
+  }
+
+  protected void discardResults(long[] hashes, int nHashes, boolean max, int depth) {
+    if (depth > 1) {
+      for (int index = 0; index < nHashes; index++) {
+        resultTable.remove(TranspositionTable.toKey(hashes[index], max, depth));
       }
     }
   }
 
+  private Result findResult(long hash, boolean max, int depth, int nRefutations) {
+    Result result = resultTable.get(TranspositionTable.toKey(hash, max, depth));
+    if (result == null || result.score() < 0 && nRefutations > 0) {
+      return null;
+    }
+    return result;
+  }
+
+  protected HistoryTable getHistoryTable() {
+    return historyTable.get();
+  }
+
+  protected EntryStack getEntryStack() {
+    return entryStack.get();
+  }
+
   protected abstract int searchMax(Position position, Aim aim, int depth,
       List<Move> pseudoLegalMovesMax);
 
-  protected abstract int searchMin(Position position, Aim aim, int depth,
-      List<Move> pseudoLegalMovesMin, int nRefutations);
+  protected abstract int searchMin(Position position, Aim aim, int depth, int nRefutations);
 
   protected abstract int getTerminalDepth();
 
@@ -226,4 +401,32 @@ public abstract class BattleProblem extends Problem {
     return new StringJoiner(", ", BattleProblem.class.getSimpleName() + "[", "]").add(
         "position=" + position).add("aim=" + aim).add("nMoves=" + nMoves).toString();
   }
+
+  private static long toKey(SolutionWriter.Branch branch) {
+    long key = branch.play().ordinal() * BRANCH_KEY + Objects.hashCode(branch.move());
+    for (SolutionWriter.Branch subbranch : branch.branches()) {
+      key = (key ^ key >>> 29) * BRANCH_KEY + toKey(subbranch);
+    }
+    return key;
+  }
+
+  private record Result(int score, Move move) {
+
+  }
+
+  private record ThreatKey(long hash, int depth) {
+
+  }
+
+  private record Threats(List<SolutionWriter.Branch> branches, Set<Long> keys) {
+
+    boolean isDisjoint(List<SolutionWriter.Branch> continuations) {
+      for (SolutionWriter.Branch continuation : continuations) {
+        if (keys.contains(toKey(continuation))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
 }
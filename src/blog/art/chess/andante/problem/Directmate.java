@@ -26,7 +26,6 @@ package blog.art.chess.andante.problem;
 
 import blog.art.chess.andante.move.Move;
 import blog.art.chess.andante.position.Position;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
 
@@ -38,42 +37,72 @@ public class Directmate extends BattleProblem {
 
   @Override
   protected int searchMax(Position position, Aim aim, int depth, List<Move> pseudoLegalMovesMax) {
-    int max = Integer.MIN_VALUE;
-    for (Move move : pseudoLegalMovesMax) {
-      List<Move> pseudoLegalMovesMin = new ArrayList<>();
-      if (move.make(position, pseudoLegalMovesMin, null, null)) {
-        int score = searchMin(position, aim, depth, pseudoLegalMovesMin, 0);
+    long hash = position.getHash();
+    int max = transpositionTable.probe(hash, true, depth, 0);
+    if (max != TranspositionTable.UNKNOWN) {
+      return max;
+    }
+    max = Integer.MIN_VALUE;
+    List<Move> orderedMovesMax = position.getMoveStack().push();
+    int nAttacks = 0;
+    if (depth > 1) {
+      nAttacks = orderAttacks(position, pseudoLegalMovesMax, orderedMovesMax);
+    } else {
+      generateFinalMoves(position, aim, orderedMovesMax);
+    }
+    getHistoryTable().order(orderedMovesMax, nAttacks, true, depth);
+    long[] hashes = getEntryStack().push(orderedMovesMax.size());
+    int nHashes = 0;
+    Move best = null;
+    for (Move move : orderedMovesMax) {
+      boolean legal = move.make(position, null, null, null);
+      if (depth == 1) {
+        legal = legal && evaluateTerminalNode(position, aim);
+      }
+      if (legal) {
+        hashes[nHashes++] = position.getHash();
+        int score = searchMin(position, aim, depth, 0);
         if (score > max) {
           max = score;
+          best = move;
         }
       }
       move.unmake(position);
       if (max == depth) {
+        getHistoryTable().store(move, true, depth);
         break;
       }
     }
+    if (max < 0) {
+      discardResults(hashes, nHashes, false, depth);
+    }
+    getEntryStack().pop();
+    position.getMoveStack().pop();
+    transpositionTable.store(hash, true, depth, 0, max);
+    storeResult(hash, true, depth, 0, max, best);
     return max;
   }
 
   @Override
-  protected int searchMin(Position position, Aim aim, int depth, List<Move> pseudoLegalMovesMin,
-      int nRefutations) {
-    int min = 0;
+  protected int searchMin(Position position, Aim aim, int depth, int nRefutations) {
+    long hash = position.getHash();
+    int min = transpositionTable.probe(hash, false, depth, nRefutations);
+    if (min != TranspositionTable.UNKNOWN) {
+      return min;
+    }
+    min = 0;
+    Move refutation = null;
     if (depth == 1) {
-      for (Move move : pseudoLegalMovesMin) {
-        if (move.make(position, null, null, null)) {
-          min--;
-        }
-        move.unmake(position);
-        if (min < -nRefutations) {
-          min = Integer.MIN_VALUE;
-          break;
-        }
+      min = -position.countMoves(nRefutations + 1);
+      if (min < -nRefutations) {
+        min = Integer.MIN_VALUE;
       }
     } else {
-      for (Move move : pseudoLegalMovesMin) {
-        List<Move> pseudoLegalMovesMax = new ArrayList<>();
-        if (move.make(position, pseudoLegalMovesMax, null, null)) {
+      Position.MoveGenerator moveGenerator = position.pushMoveGenerator(
+          getHistoryTable().findKiller(false, depth), getHistoryTable().getComparator(false));
+      for (Move move = moveGenerator.next(); move != null; move = moveGenerator.next()) {
+        List<Move> pseudoLegalMovesMax = position.getMoveStack().push();
+        if (move.make(position, depth > 2 ? pseudoLegalMovesMax : null, null, null)) {
           int score = searchMax(position, aim, depth - 1, pseudoLegalMovesMax);
           if (min == 0) {
             if (score < 0) {
@@ -96,11 +125,15 @@ public class Directmate extends BattleProblem {
           }
         }
         move.unmake(position);
+        position.getMoveStack().pop();
         if (min < -nRefutations) {
           min = Integer.MIN_VALUE;
+          refutation = move;
+          getHistoryTable().store(move, false, depth);
           break;
         }
       }
+      position.popMoveGenerator();
     }
     if (min == 0) {
       if (evaluateTerminalNode(position, aim)) {
@@ -109,6 +142,8 @@ public class Directmate extends BattleProblem {
         min = Integer.MIN_VALUE;
       }
     }
+    transpositionTable.store(hash, false, depth, nRefutations, min);
+    storeResult(hash, false, depth, nRefutations, min, refutation);
     return min;
   }
 
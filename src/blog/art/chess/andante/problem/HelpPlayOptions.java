@@ -24,6 +24,7 @@
 
 package blog.art.chess.andante.problem;
 
-public record HelpPlayOptions(boolean setPlay, boolean tempoTries) implements AnalysisOptions {
+public record HelpPlayOptions(boolean setPlay, boolean tempoTries, int hashSize,
+                              int nThreads) implements AnalysisOptions {
 
 }
@@ -38,6 +38,7 @@ public class Helpmate extends Problem {
 
   private final boolean halfMove;
   private final Aim aim;
+  private TranspositionTable transpositionTable;
 
   public Helpmate(Position position, Aim aim, int nMoves, boolean halfMove) {
     super(position, nMoves);
@@ -47,8 +48,10 @@ public class Helpmate extends Problem {
 
   @Override
   public void solve(AnalysisOptions analysisOptions, DisplayOptions displayOptions) {
+    transpositionTable = new TranspositionTable(analysisOptions.hashSize());
     solve(position, aim, nMoves, halfMove, analysisOptions.setPlay(), analysisOptions.tempoTries(),
         displayOptions.outputLanguage(), displayOptions.internalProgress());
+    transpositionTable = null;
   }
 
   private void solve(Position position, Aim aim, int nMoves, boolean halfMove,
@@ -64,13 +67,13 @@ public class Helpmate extends Problem {
         analyseMin(position, aim, nMoves, pseudoLegalMoves, branches, locale, includeTempoTries,
             includeSetPlay, includeActualPlay, logMoves);
       }
-      System.out.println(SolutionWriter.toFormatted(SolutionWriter.toGrouped(branches)));
+      out.println(SolutionWriter.toFormatted(SolutionWriter.toGrouped(branches)));
     }
     if (!includeActualPlay) {
       if (includeSetPlay) {
-        System.out.println("Illegal position in actual play.");
+        out.println("Illegal position in actual play.");
       } else {
-        System.out.println("Illegal position.");
+        out.println("Illegal position.");
       }
     }
   }
@@ -78,10 +81,18 @@ public class Helpmate extends Problem {
   private int analyseMax(Position position, Aim aim, int depth, List<Move> pseudoLegalMovesMax,
       List<SolutionWriter.Branch> branchesMax, Locale locale, boolean includeTempoTries,
       boolean includeSetPlay, boolean includeActualPlay, boolean logMoves) {
+    boolean transposable = includeActualPlay && !includeSetPlay;
+    long hash = 0;
+    if (transposable) {
+      hash = position.getHash();
+      if (transpositionTable.probe(hash, true, depth, 0) == Integer.MIN_VALUE) {
+        return 0;
+      }
+    }
     int max = 0;
     if (includeSetPlay || includeTempoTries) {
       Move move = new NullMove();
-      List<Move> pseudoLegalMovesMin = new ArrayList<>();
+      List<Move> pseudoLegalMovesMin = position.getMoveStack().push();
       if (move.make(position, pseudoLegalMovesMin, null, null)) {
         List<SolutionWriter.Branch> branchesMin = new ArrayList<>();
         if (analyseMin(position, aim, depth - 1, pseudoLegalMovesMin, branchesMin, locale,
@@ -94,37 +105,56 @@ public class Helpmate extends Problem {
           }
         }
         if (logMoves) {
-          System.err.println(logPrefix() + " depth=" + depth + " move=" + move + " branches.size()="
+          err.println(logPrefix() + " depth=" + depth + " move=" + move + " branches.size()="
               + branchesMax.size());
         }
       } else {
         if (includeSetPlay) {
-          System.out.println("Illegal position in set play.");
+          out.println("Illegal position in set play.");
         }
       }
       move.unmake(position);
+      position.getMoveStack().pop();
     }
     if (includeActualPlay) {
-      for (Move move : pseudoLegalMovesMax) {
-        List<Move> pseudoLegalMovesMin = new ArrayList<>();
-        StringBuilder lanBuilder = new StringBuilder();
-        if (move.make(position, pseudoLegalMovesMin, lanBuilder, locale)) {
+      List<Move> movesMax = pseudoLegalMovesMax;
+      if (depth == 1) {
+        movesMax = position.getMoveStack().push();
+        generateFinalMoves(position, aim, movesMax);
+      }
+      for (Move move : movesMax) {
+        List<Move> pseudoLegalMovesMin = position.getMoveStack().push();
+        boolean legal;
+        boolean reachable = true;
+        if (depth == 1) {
+          legal = move.make(position, null, null, null);
+          reachable = legal && evaluateTerminalNode(position, aim);
+        } else {
+          legal = move.make(position, pseudoLegalMovesMin, null, null);
+        }
+        if (legal) {
           List<SolutionWriter.Branch> branchesMin = new ArrayList<>();
-          if (analyseMin(position, aim, depth - 1, pseudoLegalMovesMin, branchesMin, locale,
-              includeTempoTries, false, true, false) != 0) {
+          if (reachable && analyseMin(position, aim, depth - 1, pseudoLegalMovesMin, branchesMin,
+              locale, includeTempoTries, false, true, false) != 0) {
             max++;
-            Move.postWrite(position, pseudoLegalMovesMin, lanBuilder);
-            branchesMax.add(
-                new SolutionWriter.Branch(Play.HELP_2ND, lanBuilder.toString(), branchesMin));
+            branchesMax.add(new SolutionWriter.Branch(Play.HELP_2ND, move.toLan(position, locale),
+                branchesMin));
           }
           if (logMoves) {
-            System.err.println(
+            err.println(
                 logPrefix() + " depth=" + depth + " move=" + move + " branches.size()="
                     + branchesMax.size());
           }
         }
         move.unmake(position);
+        position.getMoveStack().pop();
       }
+      if (depth == 1) {
+        position.getMoveStack().pop();
+      }
+    }
+    if (transposable && max == 0) {
+      transpositionTable.store(hash, true, depth, 0, Integer.MIN_VALUE);
     }
     return max;
   }
@@ -132,22 +162,22 @@ public class Helpmate extends Problem {
   private int analyseMin(Position position, Aim aim, int depth, List<Move> pseudoLegalMovesMin,
       List<SolutionWriter.Branch> branchesMin, Locale locale, boolean includeTempoTries,
       boolean includeSetPlay, boolean includeActualPlay, boolean logMoves) {
+    boolean transposable = includeActualPlay && !includeSetPlay;
+    long hash = 0;
+    if (transposable) {
+      hash = position.getHash();
+      if (transpositionTable.probe(hash, false, depth, 0) == Integer.MIN_VALUE) {
+        return 0;
+      }
+    }
     int min = 0;
     int nLegalMoves = 0;
     if (depth == 0) {
-      for (Move move : pseudoLegalMovesMin) {
-        if (move.make(position, null, null, null)) {
-          nLegalMoves++;
-        }
-        move.unmake(position);
-        if (nLegalMoves != 0) {
-          break;
-        }
-      }
+      nLegalMoves = position.countMoves(1);
     } else {
       if (includeSetPlay || includeTempoTries) {
         Move move = new NullMove();
-        List<Move> pseudoLegalMovesMax = new ArrayList<>();
+        List<Move> pseudoLegalMovesMax = position.getMoveStack().push();
         if (move.make(position, pseudoLegalMovesMax, null, null)) {
           List<SolutionWriter.Branch> branchesMax = new ArrayList<>();
           if (analyseMax(position, aim, depth, pseudoLegalMovesMax, branchesMax, locale,
@@ -160,38 +190,38 @@ public class Helpmate extends Problem {
             }
           }
           if (logMoves) {
-            System.err.println(
+            err.println(
                 logPrefix() + " depth=" + depth + " move=" + move + " branches.size()="
                     + branchesMin.size());
           }
         } else {
           if (includeSetPlay) {
-            System.out.println("Illegal position in set play.");
+            out.println("Illegal position in set play.");
           }
         }
         move.unmake(position);
+        position.getMoveStack().pop();
       }
       if (includeActualPlay) {
         for (Move move : pseudoLegalMovesMin) {
-          List<Move> pseudoLegalMovesMax = new ArrayList<>();
-          StringBuilder lanBuilder = new StringBuilder();
-          if (move.make(position, pseudoLegalMovesMax, lanBuilder, locale)) {
+          List<Move> pseudoLegalMovesMax = position.getMoveStack().push();
+          if (move.make(position, depth > 1 ? pseudoLegalMovesMax : null, null, null)) {
             nLegalMoves++;
             List<SolutionWriter.Branch> branchesMax = new ArrayList<>();
             if (analyseMax(position, aim, depth, pseudoLegalMovesMax, branchesMax, locale,
                 includeTempoTries, false, true, false) != 0) {
               min++;
-              Move.postWrite(position, pseudoLegalMovesMax, lanBuilder);
-              branchesMin.add(
-                  new SolutionWriter.Branch(Play.HELP_1ST, lanBuilder.toString(), branchesMax));
+              branchesMin.add(new SolutionWriter.Branch(Play.HELP_1ST, move.toLan(position, locale),
+                  branchesMax));
             }
             if (logMoves) {
-              System.err.println(
+              err.println(
                   logPrefix() + " depth=" + depth + " move=" + move + " branches.size()="
                       + branchesMin.size());
             }
           }
           move.unmake(position);
+          position.getMoveStack().pop();
         }
       }
     }
@@ -204,6 +234,9 @@ public class Helpmate extends Problem {
         }
       }
     }
+    if (transposable && min == 0) {
+      transpositionTable.store(hash, false, depth, 0, Integer.MIN_VALUE);
+    }
     return min;
   }
 
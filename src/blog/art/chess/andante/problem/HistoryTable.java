@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.problem;
+
+import blog.art.chess.andante.move.Move;
+import blog.art.chess.andante.move.QuietMove;
+import blog.art.chess.andante.position.Square;
+import java.util.Comparator;
+import java.util.List;
+import java.util.StringJoiner;
+
+public class HistoryTable {
+
+  private static final int N_FILES = 8;
+  private static final int N_SQUARES = N_FILES * N_FILES;
+  private static final int NONE = -1;
+
+  private final Move[] killers;
+  private final int[] counts = new int[2 * N_SQUARES * N_SQUARES];
+  private final Comparator<Move> maxComparator = comparator(true);
+  private final Comparator<Move> minComparator = comparator(false);
+  private long nCutoffs;
+  private long nKillerCutoffs;
+
+  public HistoryTable(int nMoves) {
+    killers = new Move[2 * (nMoves + 1)];
+  }
+
+  public Move findKiller(boolean max, int depth) {
+    return killers[toIndex(max, depth)];
+  }
+
+  public Comparator<Move> getComparator(boolean max) {
+    return max ? maxComparator : minComparator;
+  }
+
+  public void order(List<Move> orderedMoves, int nFrontMoves, boolean max, int depth) {
+    int front = 0;
+    Move killer = killers[toIndex(max, depth)];
+    if (killer != null) {
+      for (int index = 0; index < orderedMoves.size(); index++) {
+        if (killer.matches(orderedMoves.get(index))) {
+          orderedMoves.add(0, orderedMoves.remove(index));
+          front = 1;
+          if (index >= nFrontMoves) {
+            nFrontMoves++;
+          }
+          break;
+        }
+      }
+    }
+    Comparator<Move> comparator = getComparator(max);
+    if (nFrontMoves - front > 1) {
+      orderedMoves.subList(front, nFrontMoves).sort(comparator);
+    }
+    if (orderedMoves.size() - nFrontMoves > 1) {
+      orderedMoves.subList(nFrontMoves, orderedMoves.size()).sort(comparator);
+    }
+  }
+
+  public void store(Move move, boolean max, int depth) {
+    int index = toIndex(max, depth);
+    nCutoffs++;
+    if (move.matches(killers[index])) {
+      nKillerCutoffs++;
+    }
+    killers[index] = move;
+    int key = toKey(move);
+    if (key != NONE) {
+      counts[toCountIndex(key, max)]++;
+    }
+  }
+
+  private Comparator<Move> comparator(boolean max) {
+    return (move1, move2) -> Integer.compare(count(move2, max), count(move1, max));
+  }
+
+  private int count(Move move, boolean max) {
+    int key = toKey(move);
+    return key == NONE ? 0 : counts[toCountIndex(key, max)];
+  }
+
+  private static int toIndex(boolean max, int depth) {
+    return 2 * depth + (max ? 1 : 0);
+  }
+
+  private static int toCountIndex(int key, boolean max) {
+    return max ? N_SQUARES * N_SQUARES + key : key;
+  }
+
+  private static int toKey(Move move) {
+    if (move instanceof QuietMove quietMove) {
+      return toNumber(quietMove.getOrigin()) * N_SQUARES + toNumber(quietMove.getTarget());
+    }
+    return NONE;
+  }
+
+  private static int toNumber(Square square) {
+    return (square.file() - 1) * N_FILES + square.rank() - 1;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", HistoryTable.class.getSimpleName() + "[", "]").add(
+        "nCutoffs=" + nCutoffs).add("nKillerCutoffs=" + nKillerCutoffs).toString();
+  }
+}
@@ -48,64 +48,64 @@ public class MateSearch extends Problem {
     if (position.isLegal(pseudoLegalMovesMax)) {
       List<SolutionWriter.Point> points = new ArrayList<>();
       for (Move move : pseudoLegalMovesMax) {
-        List<Move> pseudoLegalMovesMin = new ArrayList<>();
-        StringBuilder lanBuilder = new StringBuilder();
-        if (move.make(position, pseudoLegalMovesMin, lanBuilder, locale)) {
+        if (move.make(position, null, null, null)) {
           for (int depth = 1; depth <= nMoves; depth++) {
-            int score = searchMin(position, depth, pseudoLegalMovesMin);
+            int score = searchMin(position, depth);
             if (score > 0) {
-              Move.postWrite(position, pseudoLegalMovesMin, lanBuilder);
-              points.add(new SolutionWriter.Point("+M" + depth, lanBuilder.toString()));
+              points.add(new SolutionWriter.Point("+M" + depth, move.toLan(position, locale)));
               break;
             }
           }
         }
         move.unmake(position);
       }
-      System.out.println(SolutionWriter.toOrderedAndFormatted(points));
+      out.println(SolutionWriter.toOrderedAndFormatted(points));
     } else {
-      System.out.println("Illegal position.");
+      out.println("Illegal position.");
     }
   }
 
   private int searchMax(Position position, int depth, List<Move> pseudoLegalMovesMax) {
     int max = -1;
-    for (Move move : pseudoLegalMovesMax) {
-      List<Move> pseudoLegalMovesMin = new ArrayList<>();
-      if (move.make(position, pseudoLegalMovesMin, null, null)) {
-        max = searchMin(position, depth, pseudoLegalMovesMin);
+    List<Move> orderedMovesMax = position.getMoveStack().push();
+    if (depth > 1) {
+      orderAttacks(position, pseudoLegalMovesMax, orderedMovesMax);
+    } else {
+      generateFinalMoves(position, Aim.MATE, orderedMovesMax);
+    }
+    for (Move move : orderedMovesMax) {
+      if (move.make(position, null, null, null)) {
+        max = searchMin(position, depth);
       }
       move.unmake(position);
       if (max > 0) {
         break;
       }
     }
+    position.getMoveStack().pop();
     return max;
   }
 
-  private int searchMin(Position position, int depth, List<Move> pseudoLegalMovesMin) {
+  private int searchMin(Position position, int depth) {
     int min = 0;
     if (depth == 1) {
-      for (Move move : pseudoLegalMovesMin) {
-        if (move.make(position, null, null, null)) {
-          min = -1;
-        }
-        move.unmake(position);
-        if (min < 0) {
-          break;
-        }
+      if (position.countMoves(1) > 0) {
+        min = -1;
       }
     } else {
-      for (Move move : pseudoLegalMovesMin) {
-        List<Move> pseudoLegalMovesMax = new ArrayList<>();
-        if (move.make(position, pseudoLegalMovesMax, null, null)) {
+      Position.MoveGenerator moveGenerator = position.pushMoveGenerator();
+      for (Move move = moveGenerator.next(); move != null; move = moveGenerator.next()) {
+        List<Move> pseudoLegalMovesMax = position.getMoveStack().push();
+        if (move.make(position, depth > 2 ? pseudoLegalMovesMax : null, null, null)) {
           min = searchMax(position, depth - 1, pseudoLegalMovesMax);
         }
         move.unmake(position);
+        position.getMoveStack().pop();
         if (min < 0) {
           break;
         }
       }
+      position.popMoveGenerator();
     }
     if (min == 0) {
       if (evaluateTerminalNode(position, Aim.MATE)) {
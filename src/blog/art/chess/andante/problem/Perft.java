@@ -28,11 +28,17 @@ import blog.art.chess.andante.move.Move;
 import blog.art.chess.andante.position.Position;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.StringJoiner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class Perft extends Problem {
 
+  private static final int N_SPLIT_PLIES = 2;
+
   private final boolean halfMove;
+  private PerftTable perftTable;
 
   public Perft(Position position, int nMoves, boolean halfMove) {
     super(position, nMoves);
@@ -41,21 +47,73 @@ public class Perft extends Problem {
 
   @Override
   public void solve(AnalysisOptions analysisOptions, DisplayOptions displayOptions) {
-    solve(position, nMoves, halfMove);
+    perftTable = new PerftTable(analysisOptions.hashSize());
+    solve(position, nMoves, halfMove, analysisOptions.nThreads(), displayOptions.outputLanguage());
+    perftTable = null;
   }
 
-  private void solve(Position position, int nMoves, boolean halfMove) {
+  private void solve(Position position, int nMoves, boolean halfMove, int nThreads,
+      Locale locale) {
     List<Move> pseudoLegalMoves = new ArrayList<>();
     if (position.isLegal(pseudoLegalMoves)) {
-      long nNodes;
+      int depth;
       if (halfMove) {
-        nNodes = analyse(position, nMoves * 2 + 1, pseudoLegalMoves);
+        depth = nMoves * 2 + 1;
+      } else {
+        depth = nMoves * 2;
+      }
+      long nNodes;
+      if (depth == 0) {
+        nNodes = 1;
+      } else if (nThreads > 1) {
+        nNodes = divide(position, depth, pseudoLegalMoves, locale, nThreads);
       } else {
-        nNodes = analyse(position, nMoves * 2, pseudoLegalMoves);
+        nNodes = divide(position, depth, pseudoLegalMoves, locale);
       }
-      System.out.println(nNodes);
+      out.println(nNodes);
     } else {
-      System.out.println("Illegal position.");
+      out.println("Illegal position.");
+    }
+  }
+
+  private long divide(Position position, int depth, List<Move> pseudoLegalMoves, Locale locale) {
+    long nNodes = 0;
+    for (Move move : pseudoLegalMoves) {
+      List<Move> pseudoLegalMovesNext = position.getMoveStack().push();
+      StringBuilder lanBuilder = new StringBuilder();
+      if (move.make(position, pseudoLegalMovesNext, lanBuilder, locale)) {
+        long nMoveNodes = analyse(position, depth - 1, pseudoLegalMovesNext);
+        err.println(logPrefix() + " move=" + lanBuilder + " nNodes=" + nMoveNodes);
+        nNodes += nMoveNodes;
+      }
+      move.unmake(position);
+      position.getMoveStack().pop();
+    }
+    return nNodes;
+  }
+
+  private long divide(Position position, int depth, List<Move> pseudoLegalMoves, Locale locale,
+      int nThreads) {
+    List<AnalysisTask> tasks = new ArrayList<>();
+    for (Move move : pseudoLegalMoves) {
+      tasks.add(new AnalysisTask(position.copy(), depth, move, N_SPLIT_PLIES - 1, locale));
+    }
+    ForkJoinPool pool = new ForkJoinPool(nThreads);
+    try {
+      for (AnalysisTask task : tasks) {
+        pool.execute(task);
+      }
+      long nNodes = 0;
+      for (AnalysisTask task : tasks) {
+        long nMoveNodes = task.join();
+        if (task.legal) {
+          err.println(logPrefix() + " move=" + task.lanBuilder + " nNodes=" + nMoveNodes);
+        }
+        nNodes += nMoveNodes;
+      }
+      return nNodes;
+    } finally {
+      pool.shutdown();
     }
   }
 
@@ -64,16 +122,81 @@ public class Perft extends Problem {
       return 1;
     }
     long nNodes = 0;
+    if (depth == 1) {
+      if (position.isStrict()) {
+        return pseudoLegalMoves.size();
+      }
+      for (Move move : pseudoLegalMoves) {
+        if (move.make(position, null, null, null)) {
+          nNodes++;
+        }
+        move.unmake(position);
+      }
+      return nNodes;
+    }
+    long hash = position.getHash();
+    nNodes = perftTable.probe(hash, depth);
+    if (nNodes != PerftTable.UNKNOWN) {
+      return nNodes;
+    }
+    nNodes = 0;
     for (Move move : pseudoLegalMoves) {
-      List<Move> pseudoLegalMovesNext = new ArrayList<>();
+      List<Move> pseudoLegalMovesNext = position.getMoveStack().push();
       if (move.make(position, pseudoLegalMovesNext, null, null)) {
         nNodes += analyse(position, depth - 1, pseudoLegalMovesNext);
       }
       move.unmake(position);
+      position.getMoveStack().pop();
     }
+    perftTable.store(hash, depth, nNodes);
     return nNodes;
   }
 
+  @SuppressWarnings("serial")
+  private class AnalysisTask extends RecursiveTask<Long> {
+
+    private final Position position;
+    private final int depth;
+    private final Move move;
+    private final int nSplitPlies;
+    private final Locale locale;
+    private final StringBuilder lanBuilder;
+    private boolean legal;
+
+    AnalysisTask(Position position, int depth, Move move, int nSplitPlies, Locale locale) {
+      this.position = position;
+      this.depth = depth;
+      this.move = move;
+      this.nSplitPlies = nSplitPlies;
+      this.locale = locale;
+      this.lanBuilder = locale != null ? new StringBuilder() : null;
+    }
+
+    @Override
+    protected Long compute() {
+      long nNodes = 0;
+      List<Move> pseudoLegalMovesNext = position.getMoveStack().push();
+      if (move.make(position, pseudoLegalMovesNext, lanBuilder, locale)) {
+        legal = true;
+        if (nSplitPlies > 0 && depth > 2) {
+          List<AnalysisTask> tasks = new ArrayList<>();
+          for (Move moveNext : pseudoLegalMovesNext) {
+            tasks.add(
+                new AnalysisTask(position.copy(), depth - 1, moveNext, nSplitPlies - 1, null));
+          }
+          for (AnalysisTask task : invokeAll(tasks)) {
+            nNodes += task.join();
+          }
+        } else {
+          nNodes = analyse(position, depth - 1, pseudoLegalMovesNext);
+        }
+      }
+      move.unmake(position);
+      position.getMoveStack().pop();
+      return nNodes;
+    }
+  }
+
   @Override
   public String toString() {
     return new StringJoiner(", ", Perft.class.getSimpleName() + "[", "]").add(
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.problem;
+
+import java.util.StringJoiner;
+
+public class PerftTable {
+
+  public static final long UNKNOWN = -1;
+
+  private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+  private final long[] keys;
+  private final long[] nNodes;
+  private final int mask;
+
+  public PerftTable(int hashSize) {
+    int nEntries = TranspositionTable.toNEntries(hashSize);
+    keys = new long[nEntries];
+    nNodes = new long[nEntries];
+    mask = nEntries - 1;
+  }
+
+  public long probe(long hash, int depth) {
+    long key = hash ^ depth * DEPTH_KEY;
+    int index = (int) key & mask;
+    long entry = nNodes[index];
+    if ((keys[index] ^ entry) != key) {
+      return UNKNOWN;
+    }
+    return entry;
+  }
+
+  public void store(long hash, int depth, long nNodes) {
+    long key = hash ^ depth * DEPTH_KEY;
+    int index = (int) key & mask;
+    keys[index] = key ^ nNodes;
+    this.nNodes[index] = nNodes;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", PerftTable.class.getSimpleName() + "[", "]").add(
+        "size=" + keys.length).toString();
+  }
+}
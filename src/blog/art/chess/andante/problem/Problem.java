@@ -24,21 +24,31 @@
 
 package blog.art.chess.andante.problem;
 
+import blog.art.chess.andante.move.Move;
 import blog.art.chess.andante.position.Position;
+import java.io.PrintStream;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.StringJoiner;
 
 public abstract class Problem {
 
   protected final Position position;
   protected final int nMoves;
+  protected PrintStream out = System.out;
+  protected PrintStream err = System.err;
 
   public Problem(Position position, int nMoves) {
     this.position = position;
     this.nMoves = nMoves;
   }
 
+  public void setOutput(PrintStream out, PrintStream err) {
+    this.out = out;
+    this.err = err;
+  }
+
   public abstract void solve(AnalysisOptions analysisOptions, DisplayOptions displayOptions);
 
   protected boolean evaluateTerminalNode(Position position, Aim aim) {
@@ -51,6 +61,31 @@ public abstract class Problem {
     return result;
   }
 
+  protected void generateFinalMoves(Position position, Aim aim, List<Move> moves) {
+    Position.MoveGenerator moveGenerator = position.pushMoveGenerator(aim == Aim.MATE);
+    for (Move move = moveGenerator.next(); move != null; move = moveGenerator.next()) {
+      moves.add(move);
+    }
+    position.popMoveGenerator();
+  }
+
+  protected int orderAttacks(Position position, List<Move> pseudoLegalMoves,
+      List<Move> orderedMoves) {
+    List<Move> otherMoves = position.getMoveStack().push();
+    for (int index = 0; index < pseudoLegalMoves.size(); index++) {
+      Move move = pseudoLegalMoves.get(index);
+      if (position.isCapture(move) || position.isCheck(move)) {
+        orderedMoves.add(move);
+      } else {
+        otherMoves.add(move);
+      }
+    }
+    int nAttacks = orderedMoves.size();
+    orderedMoves.addAll(otherMoves);
+    position.getMoveStack().pop();
+    return nAttacks;
+  }
+
   public static String logPrefix() {
     return "Andante@" + ZonedDateTime.now().truncatedTo(ChronoUnit.SECONDS);
   }
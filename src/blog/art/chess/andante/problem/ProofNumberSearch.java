@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.problem;
+
+import blog.art.chess.andante.move.Move;
+import blog.art.chess.andante.position.Position;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ProofNumberSearch {
+
+  private static final int INFINITY = Integer.MAX_VALUE;
+  private static final long PROVEN = ProofNumberTable.toEntry(0, INFINITY);
+  private static final long DISPROVEN = ProofNumberTable.toEntry(INFINITY, 0);
+
+  private final BattleProblem problem;
+  private final Aim aim;
+  private final ProofNumberTable proofNumberTable;
+  private final ThreadLocal<EntryStack> entryStacks = ThreadLocal.withInitial(EntryStack::new);
+  private final LongAdder nExpansions = new LongAdder();
+  private final LongAdder nEvaluations = new LongAdder();
+
+  public ProofNumberSearch(BattleProblem problem, Aim aim, int hashSize) {
+    this.problem = problem;
+    this.aim = aim;
+    proofNumberTable = new ProofNumberTable(hashSize);
+  }
+
+  public int searchMax(Position position, int depth, List<Move> pseudoLegalMovesMax) {
+    if (!prove(position, true, depth, pseudoLegalMovesMax)) {
+      return Integer.MIN_VALUE;
+    }
+    return findScore(position, true, problem.getTerminalDepth(), depth, pseudoLegalMovesMax);
+  }
+
+  public int searchMin(Position position, int depth, int nRefutations) {
+    if (prove(position, false, depth, null)) {
+      return findScore(position, false, 1, depth, null);
+    }
+    int min = 0;
+    if (nRefutations > 0) {
+      Position.MoveGenerator moveGenerator = position.pushMoveGenerator();
+      for (Move move = moveGenerator.next(); move != null; move = moveGenerator.next()) {
+        List<Move> pseudoLegalMovesMax = position.getMoveStack().push();
+        if (move.make(position, pseudoLegalMovesMax, null, null) && !prove(position, true,
+            depth - 1, pseudoLegalMovesMax)) {
+          min--;
+        }
+        move.unmake(position);
+        position.getMoveStack().pop();
+        if (min < -nRefutations) {
+          break;
+        }
+      }
+      position.popMoveGenerator();
+    }
+    if (min == 0 || min < -nRefutations) {
+      min = Integer.MIN_VALUE;
+    }
+    return min;
+  }
+
+  private int findScore(Position position, boolean max, int minDepth, int depth,
+      List<Move> pseudoLegalMoves) {
+    long hash = position.getHash();
+    int proofDepth = findProofDepth(hash, max, depth);
+    while (proofDepth > minDepth && prove(position, max, proofDepth - 1, pseudoLegalMoves)) {
+      proofDepth = findProofDepth(hash, max, proofDepth - 1);
+    }
+    return depth - proofDepth + 1;
+  }
+
+  private int findProofDepth(long hash, boolean max, int depth) {
+    int proofDepth = proofNumberTable.findProofDepth(hash, max, depth);
+    return proofDepth == ProofNumberTable.NONE ? depth : proofDepth;
+  }
+
+  private boolean prove(Position position, boolean max, int depth, List<Move> pseudoLegalMoves) {
+    long entry = search(position, max, depth, pseudoLegalMoves, INFINITY, INFINITY);
+    return ProofNumberTable.toProofNumber(entry) == 0;
+  }
+
+  private long search(Position position, boolean max, int depth, List<Move> pseudoLegalMoves,
+      int proofThreshold, int disproofThreshold) {
+    long hash = position.getHash();
+    long entry = proofNumberTable.probe(hash, max, depth);
+    if (ProofNumberTable.toProofNumber(entry) >= proofThreshold
+        || ProofNumberTable.toDisproofNumber(entry) >= disproofThreshold) {
+      return entry;
+    }
+    if (depth > 1) {
+      return expand(position, hash, max, depth, pseudoLegalMoves, proofThreshold,
+          disproofThreshold);
+    }
+    return evaluate(position, hash, max, depth, pseudoLegalMoves);
+  }
+
+  private long expand(Position position, long hash, boolean max, int depth,
+      List<Move> pseudoLegalMoves, int proofThreshold, int disproofThreshold) {
+    List<Move> orderedMoves = position.getMoveStack().push();
+    if (max) {
+      orderedMoves.addAll(pseudoLegalMoves);
+    } else {
+      Position.MoveGenerator moveGenerator = position.pushMoveGenerator();
+      for (Move move = moveGenerator.next(); move != null; move = moveGenerator.next()) {
+        orderedMoves.add(move);
+      }
+      position.popMoveGenerator();
+    }
+    List<Move> legalMoves = position.getMoveStack().push();
+    List<Move> otherMoves = position.getMoveStack().push();
+    EntryStack entryStack = entryStacks.get();
+    long[] hashes = entryStack.push(orderedMoves.size());
+    long[] otherHashes = entryStack.push(orderedMoves.size());
+    for (Move move : orderedMoves) {
+      boolean capture = max && position.isCapture(move);
+      if (move.make(position, null, null, null)) {
+        if (!max || capture || position.isCheck() > 0) {
+          hashes[legalMoves.size()] = position.getHash();
+          legalMoves.add(move);
+        } else {
+          otherHashes[otherMoves.size()] = position.getHash();
+          otherMoves.add(move);
+        }
+      }
+      move.unmake(position);
+    }
+    System.arraycopy(otherHashes, 0, hashes, legalMoves.size(), otherMoves.size());
+    legalMoves.addAll(otherMoves);
+    entryStack.pop();
+    long entry;
+    if (legalMoves.isEmpty()) {
+      entry = evaluate(position, hash, max, depth, pseudoLegalMoves);
+    } else {
+      nExpansions.increment();
+      int childDepth = max ? depth : depth - 1;
+      int hintNo = proofNumberTable.findChildNo(hash, max, depth + 1);
+      long[] childEntries = entryStack.push(legalMoves.size());
+      Arrays.fill(childEntries, 0, legalMoves.size(), ProofNumberTable.UNKNOWN);
+      while (true) {
+        int proofNumber = max ? INFINITY : 0;
+        int disproofNumber = max ? 0 : INFINITY;
+        int best = 0;
+        int bestNumber = 0;
+        int secondNumber = INFINITY;
+        for (int index = 0; index < legalMoves.size(); index++) {
+          long childEntry = proofNumberTable.probe(hashes[index], !max, childDepth);
+          if (childEntry == ProofNumberTable.UNKNOWN) {
+            childEntry = childEntries[index];
+          }
+          childEntries[index] = childEntry;
+          int childProofNumber = ProofNumberTable.toProofNumber(childEntry);
+          int childDisproofNumber = ProofNumberTable.toDisproofNumber(childEntry);
+          if (max) {
+            disproofNumber = add(disproofNumber, childDisproofNumber);
+            if (childProofNumber < proofNumber || childProofNumber == proofNumber
+                && index == hintNo) {
+              secondNumber = proofNumber;
+              proofNumber = childProofNumber;
+              best = index;
+              bestNumber = childDisproofNumber;
+            } else if (childProofNumber < secondNumber) {
+              secondNumber = childProofNumber;
+            }
+          } else {
+            proofNumber = add(proofNumber, childProofNumber);
+            if (childDisproofNumber < disproofNumber || childDisproofNumber == disproofNumber
+                && index == hintNo) {
+              secondNumber = disproofNumber;
+              disproofNumber = childDisproofNumber;
+              best = index;
+              bestNumber = childProofNumber;
+            } else if (childDisproofNumber < secondNumber) {
+              secondNumber = childDisproofNumber;
+            }
+          }
+        }
+        entry = ProofNumberTable.toEntry(proofNumber, disproofNumber);
+        if (proofNumber >= proofThreshold || disproofNumber >= disproofThreshold) {
+          store(hash, max, depth, entry, best, childDepth, hashes, childEntries,
+              legalMoves.size());
+          break;
+        }
+        int childProofThreshold;
+        int childDisproofThreshold;
+        if (max) {
+          childProofThreshold = Math.min(proofThreshold, add(secondNumber, 1));
+          childDisproofThreshold = disproofThreshold == INFINITY ? INFINITY
+              : disproofThreshold - disproofNumber + bestNumber;
+        } else {
+          childProofThreshold = proofThreshold == INFINITY ? INFINITY
+              : proofThreshold - proofNumber + bestNumber;
+          childDisproofThreshold = Math.min(disproofThreshold, add(secondNumber, 1));
+        }
+        Move move = legalMoves.get(best);
+        List<Move> childPseudoLegalMoves = null;
+        if (!max) {
+          childPseudoLegalMoves = position.getMoveStack().push();
+        }
+        move.make(position, childPseudoLegalMoves, null, null);
+        childEntries[best] = search(position, !max, childDepth, childPseudoLegalMoves,
+            childProofThreshold, childDisproofThreshold);
+        move.unmake(position);
+        if (!max) {
+          position.getMoveStack().pop();
+        }
+      }
+      entryStack.pop();
+    }
+    entryStack.pop();
+    position.getMoveStack().pop();
+    position.getMoveStack().pop();
+    position.getMoveStack().pop();
+    return entry;
+  }
+
+  private void store(long hash, boolean max, int depth, long entry, int best, int childDepth,
+      long[] hashes, long[] childEntries, int nChildren) {
+    int proofDepth = ProofNumberTable.NONE;
+    int childNo = ProofNumberTable.NONE;
+    if (ProofNumberTable.toProofNumber(entry) == 0) {
+      if (max) {
+        childNo = best;
+        proofDepth = INFINITY;
+        for (int index = 0; index < nChildren; index++) {
+          if (ProofNumberTable.toProofNumber(childEntries[index]) == 0) {
+            proofDepth = Math.min(proofDepth, findProofDepth(hashes[index], false, childDepth));
+          }
+        }
+      } else {
+        proofDepth = 0;
+        for (int index = 0; index < nChildren; index++) {
+          proofDepth = Math.max(proofDepth, findProofDepth(hashes[index], true, childDepth) + 1);
+        }
+      }
+    } else if (ProofNumberTable.toDisproofNumber(entry) == 0 && !max) {
+      childNo = best;
+    }
+    proofNumberTable.store(hash, max, depth, entry, proofDepth, childNo);
+  }
+
+  private long evaluate(Position position, long hash, boolean max, int depth,
+      List<Move> pseudoLegalMoves) {
+    nEvaluations.increment();
+    int score;
+    if (max) {
+      score = problem.searchMax(position, aim, depth, pseudoLegalMoves);
+    } else {
+      score = problem.searchMin(position, aim, depth, 0);
+    }
+    long entry;
+    if (score > 0) {
+      entry = PROVEN;
+      proofNumberTable.store(hash, max, depth, entry, depth - score + 1, ProofNumberTable.NONE);
+    } else {
+      entry = DISPROVEN;
+      proofNumberTable.store(hash, max, depth, entry);
+    }
+    return entry;
+  }
+
+  private static int add(int number1, int number2) {
+    if (number1 == INFINITY || number2 == INFINITY) {
+      return INFINITY;
+    }
+    return number1 >= INFINITY - 1 - number2 ? INFINITY - 1 : number1 + number2;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", ProofNumberSearch.class.getSimpleName() + "[", "]").add(
+        "nExpansions=" + nExpansions).add("nEvaluations=" + nEvaluations).toString();
+  }
+}
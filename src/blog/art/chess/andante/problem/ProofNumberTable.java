@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.problem;
+
+import java.util.StringJoiner;
+
+public class ProofNumberTable {
+
+  public static final long UNKNOWN = toEntry(1, 1);
+  public static final int NONE = -1;
+
+  private final long[] keys;
+  private final long[] entries;
+  private final long[] results;
+  private final int mask;
+
+  public ProofNumberTable(int hashSize) {
+    int nEntries = TranspositionTable.toNEntries(hashSize);
+    keys = new long[nEntries];
+    entries = new long[nEntries];
+    results = new long[nEntries];
+    mask = nEntries - 1;
+  }
+
+  public long probe(long hash, boolean max, int depth) {
+    long key = TranspositionTable.toKey(hash, max, depth);
+    int index = (int) key & mask;
+    long entry = entries[index];
+    if ((keys[index] ^ entry ^ results[index]) != key || entry == 0) {
+      return UNKNOWN;
+    }
+    return entry;
+  }
+
+  public int findProofDepth(long hash, boolean max, int depth) {
+    return (int) (findResult(hash, max, depth) >> 32);
+  }
+
+  public int findChildNo(long hash, boolean max, int depth) {
+    return (int) findResult(hash, max, depth);
+  }
+
+  public void store(long hash, boolean max, int depth, long entry) {
+    store(hash, max, depth, entry, NONE, NONE);
+  }
+
+  public void store(long hash, boolean max, int depth, long entry, int proofDepth, int childNo) {
+    long key = TranspositionTable.toKey(hash, max, depth);
+    int index = (int) key & mask;
+    long result = toResult(proofDepth, childNo);
+    keys[index] = key ^ entry ^ result;
+    entries[index] = entry;
+    results[index] = result;
+  }
+
+  private long findResult(long hash, boolean max, int depth) {
+    long key = TranspositionTable.toKey(hash, max, depth);
+    int index = (int) key & mask;
+    long entry = entries[index];
+    long result = results[index];
+    if ((keys[index] ^ entry ^ result) != key || entry == 0) {
+      return toResult(NONE, NONE);
+    }
+    return result;
+  }
+
+  private static long toResult(int proofDepth, int childNo) {
+    return (long) proofDepth << 32 | childNo & 0xFFFFFFFFL;
+  }
+
+  static long toEntry(int proofNumber, int disproofNumber) {
+    return (long) proofNumber << 32 | disproofNumber & 0xFFFFFFFFL;
+  }
+
+  static int toProofNumber(long entry) {
+    return (int) (entry >> 32);
+  }
+
+  static int toDisproofNumber(long entry) {
+    return (int) entry;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", ProofNumberTable.class.getSimpleName() + "[", "]").add(
+        "size=" + keys.length).toString();
+  }
+}
@@ -26,7 +26,6 @@ package blog.art.chess.andante.problem;
 
 import blog.art.chess.andante.move.Move;
 import blog.art.chess.andante.position.Position;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
 
@@ -38,35 +37,53 @@ public class Selfmate extends BattleProblem {
 
   @Override
   protected int searchMax(Position position, Aim aim, int depth, List<Move> pseudoLegalMovesMax) {
-    int max = 0;
+    long hash = position.getHash();
+    int max = transpositionTable.probe(hash, true, depth, 0);
+    if (max != TranspositionTable.UNKNOWN) {
+      return max;
+    }
+    max = 0;
+    Move best = null;
     if (depth == 0) {
-      for (Move move : pseudoLegalMovesMax) {
-        if (move.make(position, null, null, null)) {
-          max = Integer.MIN_VALUE;
-        }
-        move.unmake(position);
-        if (max < 0) {
-          break;
-        }
+      if (position.countMoves(1) > 0) {
+        max = Integer.MIN_VALUE;
       }
     } else {
-      for (Move move : pseudoLegalMovesMax) {
-        List<Move> pseudoLegalMovesMin = new ArrayList<>();
-        if (move.make(position, pseudoLegalMovesMin, null, null)) {
-          int score = searchMin(position, aim, depth, pseudoLegalMovesMin, 0);
+      List<Move> orderedMovesMax = position.getMoveStack().push();
+      int nAttacks = 0;
+      if (depth > 1) {
+        nAttacks = orderAttacks(position, pseudoLegalMovesMax, orderedMovesMax);
+      } else {
+        orderedMovesMax.addAll(pseudoLegalMovesMax);
+      }
+      getHistoryTable().order(orderedMovesMax, nAttacks, true, depth);
+      long[] hashes = getEntryStack().push(orderedMovesMax.size());
+      int nHashes = 0;
+      for (Move move : orderedMovesMax) {
+        if (move.make(position, null, null, null)) {
+          hashes[nHashes++] = position.getHash();
+          int score = searchMin(position, aim, depth, 0);
           if (max == 0) {
             max = score;
+            best = move;
           } else {
             if (score > max) {
               max = score;
+              best = move;
             }
           }
         }
         move.unmake(position);
         if (max == depth) {
+          getHistoryTable().store(move, true, depth);
           break;
         }
       }
+      if (max < 0) {
+        discardResults(hashes, nHashes, false, depth);
+      }
+      getEntryStack().pop();
+      position.getMoveStack().pop();
     }
     if (max == 0) {
       if (evaluateTerminalNode(position, aim)) {
@@ -75,46 +92,94 @@ public class Selfmate extends BattleProblem {
         max = Integer.MIN_VALUE;
       }
     }
+    transpositionTable.store(hash, true, depth, 0, max);
+    storeResult(hash, true, depth, 0, max, best);
     return max;
   }
 
   @Override
-  protected int searchMin(Position position, Aim aim, int depth, List<Move> pseudoLegalMovesMin,
-      int nRefutations) {
-    int min = 0;
-    for (Move move : pseudoLegalMovesMin) {
-      List<Move> pseudoLegalMovesMax = new ArrayList<>();
-      if (move.make(position, pseudoLegalMovesMax, null, null)) {
-        int score = searchMax(position, aim, depth - 1, pseudoLegalMovesMax);
-        if (min == 0) {
-          if (score < 0) {
-            min = -1;
-          } else {
-            min = score;
+  protected int searchMin(Position position, Aim aim, int depth, int nRefutations) {
+    long hash = position.getHash();
+    int min = transpositionTable.probe(hash, false, depth, nRefutations);
+    if (min != TranspositionTable.UNKNOWN) {
+      return min;
+    }
+    min = 0;
+    Move refutation = null;
+    if (depth == 1) {
+      Position.MoveGenerator moveGenerator = position.pushMoveGenerator(aim != Aim.MATE);
+      for (Move move = moveGenerator.next(); move != null; move = moveGenerator.next()) {
+        if (move.make(position, null, null, null)) {
+          min--;
+        }
+        move.unmake(position);
+        if (min < -nRefutations) {
+          min = Integer.MIN_VALUE;
+          refutation = move;
+          break;
+        }
+      }
+      position.popMoveGenerator();
+    }
+    if (min != Integer.MIN_VALUE) {
+      Position.MoveGenerator moveGenerator;
+      if (depth == 1) {
+        moveGenerator = position.pushMoveGenerator(aim == Aim.MATE);
+      } else {
+        moveGenerator = position.pushMoveGenerator(getHistoryTable().findKiller(false, depth),
+            getHistoryTable().getComparator(false));
+      }
+      for (Move move = moveGenerator.next(); move != null; move = moveGenerator.next()) {
+        List<Move> pseudoLegalMovesMax = position.getMoveStack().push();
+        boolean legal;
+        boolean reachable = true;
+        if (depth == 1) {
+          legal = move.make(position, null, null, null);
+          reachable = legal && evaluateTerminalNode(position, aim);
+        } else {
+          legal = move.make(position, pseudoLegalMovesMax, null, null);
+        }
+        if (legal) {
+          int score = Integer.MIN_VALUE;
+          if (reachable) {
+            score = searchMax(position, aim, depth - 1, pseudoLegalMovesMax);
           }
-        } else if (min > 0) {
-          if (score < 0) {
-            min = -1;
-          } else {
-            if (score < min) {
+          if (min == 0) {
+            if (score < 0) {
+              min = -1;
+            } else {
               min = score;
             }
-          }
-        } else {
-          if (score < 0) {
-            min--;
+          } else if (min > 0) {
+            if (score < 0) {
+              min = -1;
+            } else {
+              if (score < min) {
+                min = score;
+              }
+            }
+          } else {
+            if (score < 0) {
+              min--;
+            }
           }
         }
+        move.unmake(position);
+        position.getMoveStack().pop();
+        if (min < -nRefutations) {
+          min = Integer.MIN_VALUE;
+          refutation = move;
+          getHistoryTable().store(move, false, depth);
+          break;
+        }
       }
-      move.unmake(position);
-      if (min < -nRefutations) {
-        min = Integer.MIN_VALUE;
-        break;
-      }
+      position.popMoveGenerator();
     }
     if (min == 0) {
       min = Integer.MIN_VALUE;
     }
+    transpositionTable.store(hash, false, depth, nRefutations, min);
+    storeResult(hash, false, depth, nRefutations, min, refutation);
     return min;
   }
 
@@ -24,6 +24,7 @@
 
 package blog.art.chess.andante.problem;
 
+import java.io.PrintStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -42,15 +43,20 @@ public class Task {
   }
 
   public void solve() {
-    System.out.println("-".repeat(72));
+    solve(System.out, System.err);
+  }
+
+  public void solve(PrintStream out, PrintStream err) {
+    out.println("-".repeat(72));
     if (displayOptions.internalModel()) {
-      System.err.println(Problem.logPrefix() + " task=" + this);
+      err.println(Problem.logPrefix() + " task=" + this);
     }
-    System.err.println(Problem.logPrefix() + " problem.solve(...)");
+    err.println(Problem.logPrefix() + " problem.solve(...)");
     Instant begin = Instant.now();
+    problem.setOutput(out, err);
     problem.solve(analysisOptions, displayOptions);
     Instant end = Instant.now();
-    System.err.println(Problem.logPrefix() + " duration=" + Duration.between(begin, end)
+    err.println(Problem.logPrefix() + " duration=" + Duration.between(begin, end)
         .truncatedTo(ChronoUnit.MILLIS));
   }
 
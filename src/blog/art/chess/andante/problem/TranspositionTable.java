@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024-2025 Ivan Denkovski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package blog.art.chess.andante.problem;
+
+import java.util.StringJoiner;
+
+public class TranspositionTable {
+
+  public static final int UNKNOWN = 0;
+
+  private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+  private static final long MAX_KEY = 0xC2B2AE3D27D4EB4FL;
+
+  private final long[] keys;
+  private final long[] entries;
+  private final int mask;
+
+  public TranspositionTable(int hashSize) {
+    int nEntries = toNEntries(hashSize);
+    keys = new long[nEntries];
+    entries = new long[nEntries];
+    mask = nEntries - 1;
+  }
+
+  public int probe(long hash, boolean max, int depth, int nRefutations) {
+    long key = toKey(hash, max, depth);
+    int index = (int) key & mask;
+    long entry = entries[index];
+    if ((keys[index] ^ entry) != key || entry == 0) {
+      return UNKNOWN;
+    }
+    int score = (int) (entry >> 32);
+    int entryRefutations = (int) entry;
+    if (score == Integer.MIN_VALUE) {
+      return nRefutations <= entryRefutations ? score : UNKNOWN;
+    }
+    return score < -nRefutations ? Integer.MIN_VALUE : score;
+  }
+
+  public void store(long hash, boolean max, int depth, int nRefutations, int score) {
+    long key = toKey(hash, max, depth);
+    int index = (int) key & mask;
+    long entry = (long) score << 32 | nRefutations & 0xFFFFFFFFL;
+    keys[index] = key ^ entry;
+    entries[index] = entry;
+  }
+
+  static int toNEntries(int hashSize) {
+    return Integer.highestOneBit(Math.min(Math.max(hashSize, 1), 1 << 14)) << 16;
+  }
+
+  static long toKey(long hash, boolean max, int depth) {
+    long key = hash ^ depth * DEPTH_KEY;
+    if (max) {
+      key ^= MAX_KEY;
+    }
+    return key;
+  }
+
+  @Override
+  public String toString() {
+    return new StringJoiner(", ", TranspositionTable.class.getSimpleName() + "[", "]").add(
+        "size=" + keys.length).toString();
+  }
+}